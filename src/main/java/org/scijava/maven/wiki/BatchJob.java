@@ -0,0 +1,245 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * A batch of projects to index and upload together, as listed in a job file.
+ * <p>
+ * A job file is a properties file. Its {@code projects} entry lists the IDs of
+ * the projects, separated by commas, in order of precedence: a component page
+ * shared by several projects is generated from the first of them. Each project
+ * is described by entries prefixed with its ID, e.g.:
+ * </p>
+ * <pre>
+ * projects = imagej, fiji
+ * imagej.groupId = net.imagej
+ * imagej.artifactId = imagej
+ * imagej.version = 2.3.0
+ * imagej.includeBase = true
+ * fiji.groupId = sc.fiji
+ * fiji.artifactId = fiji
+ * fiji.version = 2.3.1
+ * fiji.name = Fiji
+ * fiji.includeBase = true
+ * fiji.resolution = managed
+ * </pre>
+ * <p>
+ * Only {@code groupId}, {@code artifactId} and {@code version} are required.
+ * All other entries, such as {@code mwmi.url}, are options of the whole run.
+ * </p>
+ * 
+ * @see Info
+ */
+public class BatchJob {
+
+	/** The fields by which a project is described. */
+	private static final List<String> FIELDS = Arrays.asList("groupId",
+		"artifactId", "version", "name", "includeBase", "resolution");
+
+	private final List<Project> projects;
+
+	private final Properties options;
+
+	/** Reads the job from the given file. */
+	public static BatchJob load(final File file) throws IOException {
+		final Properties p = new Properties();
+		try (final InputStream in = new FileInputStream(file)) {
+			p.load(in);
+		}
+		return new BatchJob(p);
+	}
+
+	/**
+	 * Creates the job from the given properties, laid out as in a job file.
+	 * 
+	 * @throws IllegalArgumentException if a project is incompletely described.
+	 */
+	public BatchJob(final Properties p) {
+		final List<Project> list = new ArrayList<>();
+		final Set<String> ids = new HashSet<>();
+		final String projectIds = p.getProperty("projects", "").trim();
+		for (final String id : projectIds.split("\\s*,\\s*")) {
+			if (id.isEmpty() || !ids.add(id)) continue;
+			final String includeBase = id + ".includeBase";
+			list.add(new Project(id, required(p, id, "groupId"), //
+				required(p, id, "artifactId"), required(p, id, "version"), //
+				value(p, id + ".name"), flag(includeBase, value(p, includeBase)), //
+				resolution(value(p, id + ".resolution"))));
+		}
+		projects = Collections.unmodifiableList(list);
+		// NB: Only the fields of a project are its own; a project named like an
+		// option prefix, e.g. mwmi, does not take over the options.
+		final Set<String> projectKeys = new HashSet<>();
+		projectKeys.add("projects");
+		for (final String id : ids) {
+			for (final String field : FIELDS) {
+				projectKeys.add(id + "." + field);
+			}
+		}
+		options = new Properties();
+		for (final String key : p.stringPropertyNames()) {
+			if (projectKeys.contains(key)) continue;
+			options.setProperty(key, p.getProperty(key));
+		}
+	}
+
+	// -- BatchJob methods --
+
+	/** Gets the projects, in order of precedence. */
+	public List<Project> getProjects() {
+		return projects;
+	}
+
+	/** Gets the value of the given option of the whole run, or null if unset. */
+	public String getOption(final String key) {
+		return value(options, key);
+	}
+
+	// -- Utility methods --
+
+	/**
+	 * Parses the given value of a flag: {@code true} or an empty value sets it,
+	 * while {@code false} or no value at all does not.
+	 * 
+	 * @param key The key of the flag, to report an invalid value.
+	 * @throws IllegalArgumentException If the value is anything else.
+	 */
+	public static boolean flag(final String key, final String value) {
+		if (value == null || value.equalsIgnoreCase("false")) return false;
+		if (value.isEmpty() || value.equalsIgnoreCase("true")) return true;
+		throw new IllegalArgumentException("Invalid " + key + ": " + value);
+	}
+
+	/**
+	 * Parses the given name of a {@link ComponentIndex.Resolution}, such as
+	 * {@code direct-or-classpath}, or returns null if the name is null.
+	 */
+	public static ComponentIndex.Resolution resolution(final String name) {
+		if (name == null) return null;
+		return ComponentIndex.Resolution.valueOf(name.toUpperCase().replace('-',
+			'_'));
+	}
+
+	// -- Helper methods --
+
+	private static String required(final Properties p, final String id,
+		final String field)
+	{
+		final String value = value(p, id + "." + field);
+		if (value == null) {
+			throw new IllegalArgumentException("No " + field + " for project " + id);
+		}
+		return value;
+	}
+
+	private static String value(final Properties p, final String key) {
+		final String value = p.getProperty(key);
+		return value == null ? null : value.trim();
+	}
+
+	// -- Helper classes --
+
+	/** A project of a batch job. */
+	public static class Project {
+
+		private final String id;
+		private final String groupId, artifactId, version;
+		private final String name;
+		private final boolean includeBase;
+		private final ComponentIndex.Resolution resolution;
+
+		/**
+		 * @param name The name to give the project in its tables, or null for
+		 *          the one in its POM.
+		 * @param includeBase Whether the project gets a {@code ComponentStats}
+		 *          page of its own.
+		 * @param resolution How the project's components are found, or null for
+		 *          the job's default.
+		 */
+		public Project(final String id, final String groupId,
+			final String artifactId, final String version, final String name,
+			final boolean includeBase, final ComponentIndex.Resolution resolution)
+		{
+			this.id = id;
+			this.groupId = groupId;
+			this.artifactId = artifactId;
+			this.version = version;
+			this.name = name;
+			this.includeBase = includeBase;
+			this.resolution = resolution;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public String getGroupId() {
+			return groupId;
+		}
+
+		public String getArtifactId() {
+			return artifactId;
+		}
+
+		public String getVersion() {
+			return version;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public boolean isIncludeBase() {
+			return includeBase;
+		}
+
+		public ComponentIndex.Resolution getResolution() {
+			return resolution;
+		}
+
+		public String getGAV() {
+			return groupId + ":" + artifactId + ":" + version;
+		}
+
+		// -- Object methods --
+
+		@Override
+		public String toString() {
+			return id + " (" + getGAV() + ")";
+		}
+	}
+
+}
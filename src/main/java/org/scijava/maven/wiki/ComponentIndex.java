@@ -24,30 +24,44 @@
 package org.scijava.maven.wiki;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Date;
+import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
-import javax.xml.parsers.ParserConfigurationException;
-
-import org.scijava.util.Manifest;
-import org.scijava.util.POM;
-import org.scijava.util.XML;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
+import org.scijava.maven.wiki.ComponentMetadata.License;
+import org.scijava.maven.wiki.ComponentMetadata.Person;
+import org.scijava.maven.wiki.POMSummary.Dependency;
 
 /**
  * A tool for indexing dependencies of a particular Maven component, and
  * generating MediaWiki-formatted metadata tables describing those dependencies.
+ * <p>
+ * Once constructed, an index may generate tables from multiple threads at once.
+ * </p>
  * 
  * @author Curtis Rueden
  */
@@ -88,53 +102,273 @@ public class ComponentIndex {
 		return map;
 	}
 
+	/** Default number of threads with which POMs are resolved concurrently. */
+	public static final int DEFAULT_THREADS = 8;
+
+	/** Scopes of the dependencies followed by default in transitive mode. */
+	public static final Set<String> DEFAULT_SCOPES = Collections
+		.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("compile", "runtime")));
+
+	private static final Pattern PROPERTY = //
+		Pattern.compile("\\$\\{([^}]*)\\}");
+
+	/**
+	 * Version of the generated tables, bumped whenever they change for the same
+	 * inputs, so that all {@link #getFingerprint fingerprints} change too.
+	 */
+	private static final String TABLE_FORMAT = "1";
+
+	private static ExecutorService defaultExecutor;
+
+	/** Repositories in which POMs are sought, unless others are given. */
+	private static final MavenRepositories DEFAULT_REPOSITORIES =
+		new MavenRepositories();
+
+	/** Repositories in which the POMs are sought. */
+	private final MavenRepositories repositories;
+
 	/** POM of the base project. */
-	private final POM project;
+	private final POMSummary project;
 
 	/** Collection of dependencies for the base project. */
 	private final HashMap<String, String> deps = new HashMap<>();
 
-	/** Cache of retrieved component POMs. */
-	private final HashMap<String, POM> pomCache = new HashMap<>();
+	/**
+	 * Cache of retrieved component POMs, shared across all indices; see
+	 * {@link MavenRepositories#cacheKey}.
+	 */
+	private final POMCache pomCache = POMCache.shared();
+
+	/** Cache of component release dates, shared across all indices. */
+	private final ReleaseDates releaseDates = ReleaseDates.shared();
+
+	private final MissingPOMs missingPOMs = MissingPOMs.shared();
+
+	private final Metrics metrics = Metrics.shared();
+
+	/** Executor with which POMs are resolved, or null to resolve lazily. */
+	private final ExecutorService executor;
 
 	/** List of POMs relevant to the base project. */
-	private final List<POM> poms;
+	private final List<POMSummary> poms;
+
+	/** Transitive dependency graph of the base project, or null if not built. */
+	private final DependencyGraph graph;
+
+	/** Scopes of the dependencies followed in transitive mode. */
+	private final Set<String> scopes;
+
+	/**
+	 * Versions managed by the base project, by interpolated {@code G:A}. In
+	 * transitive mode, these override the versions declared by dependencies.
+	 */
+	private final Map<String, String> rootManaged = new HashMap<>();
+
+	/** {@code G:A} of the dependencies whose POMs could not be located. */
+	private final Set<String> missing = ConcurrentHashMap.newKeySet();
+
+	/** Metadata of the components, extracted on demand. */
+	private final ConcurrentHashMap<String, ComponentMetadata> metadata =
+		new ConcurrentHashMap<>();
+
+	/** Persistent store of component metadata, or null for none. */
+	private volatile MetadataStore metadataStore;
+
+	/** {@code G:A:V} of the components found not to be in the store. */
+	private final Set<String> unstored = ConcurrentHashMap.newKeySet();
+
+	/** Whether the parent chains of the components have been fetched. */
+	private boolean parentsResolved;
 
 	/** Name of the base project whose components are being indexed. */
 	private String baseName;
 
 	public ComponentIndex(final String g, final String a, final String v)
-		throws IOException, ParserConfigurationException, SAXException
+		throws IOException
+	{
+		this(g, a, v, Resolution.CLASSPATH);
+	}
+
+	public ComponentIndex(final String g, final String a, final String v,
+		final Resolution resolution) throws IOException
+	{
+		this(g, a, v, resolution, DEFAULT_REPOSITORIES);
+	}
+
+	public ComponentIndex(final String g, final String a, final String v,
+		final Resolution resolution, final MavenRepositories repositories)
+		throws IOException
+	{
+		this(g, a, v, resolution, POMSummary::getAllPOMs, defaultExecutor(),
+			repositories);
+	}
+
+	public ComponentIndex(final String g, final String a, final String v,
+		final Collection<POMSummary> candidates) throws IOException
+	{
+		this(g, a, v, candidates, defaultExecutor());
+	}
+
+	/**
+	 * Creates an index of the given project's dependencies, drawn from the given
+	 * candidate POMs.
+	 * 
+	 * @param executor The executor with which the parent POMs of all relevant
+	 *          components are resolved concurrently, up front. If null, parent
+	 *          POMs are instead resolved one by one, as needed.
+	 */
+	public ComponentIndex(final String g, final String a, final String v,
+		final Collection<POMSummary> candidates, final ExecutorService executor)
+		throws IOException
 	{
-		this(g, a, v, POM.getAllPOMs());
+		this(g, a, v, Resolution.CLASSPATH, () -> candidates, executor,
+			DEFAULT_REPOSITORIES);
 	}
 
 	public ComponentIndex(final String g, final String a, final String v,
-		final Collection<POM> candidates) throws IOException,
-		ParserConfigurationException, SAXException
+		final int maxDepth, final Set<String> scopes) throws IOException
 	{
+		this(g, a, v, maxDepth, scopes, DEFAULT_REPOSITORIES);
+	}
+
+	public ComponentIndex(final String g, final String a, final String v,
+		final int maxDepth, final Set<String> scopes,
+		final MavenRepositories repositories) throws IOException
+	{
+		this(g, a, v, maxDepth, scopes, defaultExecutor(), repositories);
+	}
+
+	/**
+	 * Creates an index of the given project's transitive dependencies, expanding
+	 * its dependency graph breadth-first. Each dependency's POM is located by
+	 * its coordinates, as with {@link Resolution#DIRECT}. As in Maven, versions
+	 * managed by the project override those declared by its dependencies, the
+	 * nearest version of a component wins, and optional dependencies are not
+	 * followed, nor are {@code test} or {@code provided} ones beyond the
+	 * project's own.
+	 * 
+	 * @param maxDepth The depth beyond which dependencies are not followed: 1
+	 *          for the project's own dependencies only, or
+	 *          {@link DependencyGraph#UNLIMITED}.
+	 * @param scopes The scopes of the dependencies to follow, with
+	 *          {@code compile} standing for the default scope.
+	 * @param executor The executor with which each level of the graph is
+	 *          expanded concurrently. If null, components are expanded one by
+	 *          one.
+	 * @param repositories The repositories in which the POMs are sought.
+	 */
+	public ComponentIndex(final String g, final String a, final String v,
+		final int maxDepth, final Set<String> scopes,
+		final ExecutorService executor, final MavenRepositories repositories)
+		throws IOException
+	{
+		this(g, a, v, Resolution.DIRECT, null, executor, repositories, maxDepth,
+			scopes);
+	}
+
+	/**
+	 * Creates an index of the given project's dependencies.
+	 * 
+	 * @param resolution How the POMs of the dependencies are found.
+	 * @param candidates The candidate POMs, among which dependencies are sought
+	 *          when scanning; only requested if needed.
+	 * @param executor The executor with which the POMs of all relevant
+	 *          components, and their parents, are resolved concurrently, up
+	 *          front. If null, POMs are resolved one by one, and parent POMs
+	 *          only as needed.
+	 * @param repositories The repositories in which the POMs are sought.
+	 */
+	public ComponentIndex(final String g, final String a, final String v,
+		final Resolution resolution,
+		final Supplier<? extends Collection<POMSummary>> candidates,
+		final ExecutorService executor, final MavenRepositories repositories)
+		throws IOException
+	{
+		this(g, a, v, resolution, candidates, executor, repositories, 0, null);
+	}
+
+	private ComponentIndex(final String g, final String a, final String v,
+		final Resolution resolution,
+		final Supplier<? extends Collection<POMSummary>> candidates,
+		final ExecutorService executor, final MavenRepositories repositories,
+		final int maxDepth, final Set<String> scopes) throws IOException
+	{
+		if (repositories == null) {
+			throw new NullPointerException("Null repositories");
+		}
+		this.repositories = repositories;
+		this.executor = executor;
+		this.scopes = scopes == null ? DEFAULT_SCOPES : scopes;
 		project = fetchPOM(g, a, v);
 		baseName = project.getProjectName();
 
 		// build list of dependencies for the project
-		final ArrayList<Element> depList = dependencies(project);
-		for (final Element dep : depList) {
-			final String dg = XML.cdata(dep, "groupId");
-			final String da = XML.cdata(dep, "artifactId");
-			final String dv = XML.cdata(dep, "version");
-			deps.put(dg + ":" + da, dv);
+		final List<Dependency> dependencies = dependencies(project);
+		for (final Dependency dep : dependencies) {
+			deps.put(dep.getGroupId() + ":" + dep.getArtifactId(), dep
+				.getVersion());
 		}
 
-		// filter the candidate components
 		poms = new ArrayList<>();
-		for (final POM pom : candidates) {
-			if (isRelevant(pom)) poms.add(pom);
+		if (maxDepth > 0) {
+			for (final Map.Entry<String, String[]> e : managedCoordinates(project,
+				new HashSet<>()).entrySet())
+			{
+				rootManaged.put(e.getKey(), e.getValue()[2]);
+			}
+			try (final Metrics.Stopwatch sw = metrics.start("phase.graph")) {
+				graph = DependencyGraph.expand(project, maxDepth,
+					this::dependencyPOMs, executor);
+			}
+			for (int id = 1; id < graph.size(); id++) {
+				poms.add(graph.getPOM(id));
+			}
+		}
+		else if (resolution == Resolution.MANAGED) {
+			graph = null;
+			try (final Metrics.Stopwatch sw = metrics.start("phase.managed")) {
+				final Map<String, String[]> managed = managedCoordinates(project,
+					new HashSet<>());
+				managed.remove(project.getGroupId() + ":" + project.getArtifactId());
+				locateAll(new ArrayList<>(managed.values()));
+			}
+		}
+		else if (resolution == Resolution.CLASSPATH) {
+			graph = null;
+			// filter the candidate components
+			try (final Metrics.Stopwatch sw = metrics.start("phase.scan")) {
+				for (final POMSummary pom : candidates.get()) {
+					if (isRelevant(pom)) poms.add(pom);
+				}
+			}
+		}
+		else {
+			graph = null;
+			try (final Metrics.Stopwatch sw = metrics.start("phase.direct")) {
+				resolveDirectly(lineage(project), dependencies);
+			}
+			if (!missing.isEmpty() && resolution == Resolution.DIRECT_OR_CLASSPATH) {
+				try (final Metrics.Stopwatch sw = metrics.start("phase.scan")) {
+					for (final POMSummary pom : candidates.get()) {
+						if (missing.remove(pom.getGroupId() + ":" + pom
+							.getArtifactId()))
+						{
+							poms.add(pom);
+						}
+					}
+				}
+			}
 		}
 	}
 
 	// -- ComponentIndex methods --
 
-	public POM getProject() {
+	/** Gets the repositories in which the POMs are sought. */
+	public MavenRepositories getRepositories() {
+		return repositories;
+	}
+
+	public POMSummary getProject() {
 		return project;
 	}
 
@@ -146,16 +380,95 @@ public class ComponentIndex {
 		this.baseName = baseName;
 	}
 
-	public List<POM> getPOMs() {
+	public List<POMSummary> getPOMs() {
 		return poms;
 	}
 
+	/**
+	 * Gets the transitive dependency graph of the base project, or null if the
+	 * index was not built in transitive mode.
+	 */
+	public DependencyGraph getGraph() {
+		return graph;
+	}
+
+	public MetadataStore getMetadataStore() {
+		return metadataStore;
+	}
+
+	/**
+	 * Sets the persistent store from which component metadata is read, and to
+	 * which newly extracted metadata is written.
+	 */
+	public void setMetadataStore(final MetadataStore metadataStore) {
+		this.metadataStore = metadataStore;
+	}
+
+	/**
+	 * Gets the metadata of the given component, extracting it from the POM only
+	 * if it is not already known.
+	 */
+	public ComponentMetadata getMetadata(final POMSummary pom) {
+		final String g = pom.getGroupId();
+		final String a = pom.getArtifactId();
+		final String v = pom.getVersion();
+		final String gav = g + ":" + a + ":" + v;
+		ComponentMetadata meta = metadata.get(gav);
+		if (meta != null) return meta;
+		resolveParents();
+		meta = metadata.get(gav);
+		if (meta != null) return meta;
+
+		final MetadataStore store = metadataStore;
+		final String validator = store == null ? null : store.validator(pom);
+		if (!unstored.contains(gav)) meta = loadMetadata(pom, store, validator);
+		if (meta == null) {
+			meta = extractMetadata(pom);
+			// NB: Metadata lacking what a missing parent declares is not stored,
+			// in case the parent is deployed later.
+			if (store != null && isLineageComplete(pom)) {
+				store.save(meta, validator);
+			}
+		}
+		// NB: If another thread extracted the same metadata first, use its copy.
+		final ComponentMetadata prior = metadata.putIfAbsent(gav, meta);
+		return prior == null ? meta : prior;
+	}
+
 	/**
 	 * Generates a table containing basic information about each dependency of the
 	 * associated project.
 	 */
 	public String generateMasterTable() {
-		final Stringer s = new Stringer();
+		final StringBuilder sb = new StringBuilder();
+		try {
+			writeMasterTable(sb);
+		}
+		catch (final IOException exc) {
+			// NB: Appending to a StringBuilder never fails.
+			throw new UncheckedIOException(exc);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes a table containing basic information about each dependency of the
+	 * associated project to the given sink, row by row.
+	 */
+	public void writeMasterTable(final Appendable out) throws IOException {
+		final FlightEvents.TableRender event = new FlightEvents.TableRender();
+		event.begin();
+		final TableWriter s = new TableWriter(out);
+		writeMasterTable(s);
+		if (event.shouldCommit()) {
+			event.gav = project.getGAV();
+			event.table = "master";
+			event.chars = s.count;
+			event.commit();
+		}
+	}
+
+	private void writeMasterTable(final TableWriter s) throws IOException {
 		s.println("{| class=\"component-table\"");
 		s.println("| '''Name'''");
 		s.println("| '''Description'''");
@@ -163,76 +476,104 @@ public class ComponentIndex {
 		s.println("| '''Artifact'''");
 		s.println("| '''[[License]]'''");
 		s.println("| '''[[Team]]'''");
-		for (final POM pom : poms) {
-			final String g = pom.getGroupId();
-			final String a = pom.getArtifactId();
+		for (final POMSummary pom : poms) {
+			final ComponentMetadata meta = getMetadata(pom);
+			final String g = meta.getGroupId();
+			final String a = meta.getArtifactId();
 
-			final String name = pom.getProjectName();
-			final String desc = pom.getProjectDescription();
-			final String url = pom.getProjectURL();
+			final String name = meta.getName();
+			final String desc = meta.getDescription();
+			final String url = meta.getURL();
 
-			final String scmURL = pom.getSCMURL();
+			final String scmURL = meta.getSCMURL();
 
 			s.println("|-");
 			s.println("| ", link(name, url));
 			s.println("| ", desc);
 			s.println("| ", scmLink(scmURL));
 			s.println("| ", mavenLink(g, a));
-			s.println("| ", licenseLinks(pom));
-			s.println("| ", teamLinks(pom));
+			s.println("| ", licenseLinks(meta));
+			s.println("| ", teamLinks(meta));
 		}
 		s.println("|}");
-		return s.toString();
 	}
 
 	/**
 	 * Generates a sidebar table with detailed statistics about the given
 	 * component.
 	 */
-	public String generateComponentTable(final POM pom) {
-		final Stringer s = new Stringer();
+	public String generateComponentTable(final POMSummary pom) {
+		final StringBuilder sb = new StringBuilder();
+		try {
+			writeComponentTable(pom, sb);
+		}
+		catch (final IOException exc) {
+			// NB: Appending to a StringBuilder never fails.
+			throw new UncheckedIOException(exc);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Writes a sidebar table with detailed statistics about the given component
+	 * to the given sink, row by row.
+	 */
+	public void writeComponentTable(final POMSummary pom, final Appendable out)
+		throws IOException
+	{
+		final FlightEvents.TableRender event = new FlightEvents.TableRender();
+		event.begin();
+		final TableWriter s = new TableWriter(out);
+		writeComponentTable(pom, s);
+		if (event.shouldCommit()) {
+			event.gav = pom.getGAV();
+			event.table = "component";
+			event.chars = s.count;
+			event.commit();
+		}
+	}
+
+	private void writeComponentTable(final POMSummary pom, final TableWriter s)
+		throws IOException
+	{
+		final ComponentMetadata meta = getMetadata(pom);
 
 		// coordinates
-		final String g = pom.getGroupId();
-		final String a = pom.getArtifactId();
-		final String v = pom.getVersion();
+		final String g = meta.getGroupId();
+		final String a = meta.getArtifactId();
+		final String v = meta.getVersion();
 
 		// team members
-		final Items founders = founderLinks(pom);
-		final Items leads = roleLinks(pom, "lead");
-		final Items developers = roleLinks(pom, "developer");
-		final Items debuggers = roleLinks(pom, "debugger");
-		final Items reviewers = roleLinks(pom, "reviewer");
-		final Items support = roleLinks(pom, "support");
-		final Items maintainers = roleLinks(pom, "maintainer");
-		final Items contributors = contributorLinks(pom);
-		final Items otherDevs =
-			otherDevs(pom, "founder", "lead", "developer", "debugger", "reviewer",
-				"support", "maintainer");
-
-		// NB: Parse scijava.team.<role> values.
-		// These indicate the number of people needed in each role.
-		// If these values are less than the _actual_ number of people currently
-		// filling each role, the table will indicate that more help is needed.
-		final int leadCount = propertyNumber(pom, "scijava.team.leads");
-		final int developerCount = propertyNumber(pom, "scijava.team.developers");
-		final int debuggerCount = propertyNumber(pom, "scijava.team.debuggers");
-		final int reviewerCount = propertyNumber(pom, "scijava.team.reviewers");
-		final int supportCount = propertyNumber(pom, "scijava.team.supports");
-		final int maintainerCount = propertyNumber(pom, "scijava.team.maintainers");
-
-		final boolean obsolete = propertyFlag(pom, "scijava.obsolete");
+		final RoleIndex roles = new RoleIndex(meta);
+		final Items founders = personLinks(roles.getFounders());
+		final Items leads = personLinks(roles.get("lead"));
+		final Items developers = personLinks(roles.get("developer"));
+		final Items debuggers = personLinks(roles.get("debugger"));
+		final Items reviewers = personLinks(roles.get("reviewer"));
+		final Items support = personLinks(roles.get("support"));
+		final Items maintainers = personLinks(roles.get("maintainer"));
+		final Items contributors = contributorLinks(meta);
+		final Items otherDevs = otherDevs(roles);
+
+		final boolean obsolete = propertyFlag(meta, "scijava.obsolete");
 		final String devStatus = devStatus(v, developers, obsolete);
 		final String supportStatus = supportStatus(debuggers, reviewers, support);
 
 		s.println("{{Component");
 		s.printRow("project", getBaseName());
-		s.printRow("name", pom.getProjectName());
-		s.printRow("url", pom.getProjectURL());
-		s.printRow("source", scmLink(pom.getSCMURL(), pom.getSCMTag(), a, v));
-		s.printRow("license", licenseLinks(pom));
+		if (graph != null) {
+			final int id = graph.indexOf(g + ":" + a);
+			if (id >= 0) {
+				s.printRow("depth", graph.getDepth(id));
+				s.printRow("path", path(id));
+			}
+		}
+		s.printRow("name", meta.getName());
+		s.printRow("url", meta.getURL());
+		s.printRow("source", scmLink(meta.getSCMURL(), meta.getSCMTag(), a, v));
+		s.printRow("license", licenseLinks(meta));
 		s.printRow("release", mavenLink(g, a, v));
-		s.printRow("date", releaseDate(pom));
+		s.printRow("date", meta.getReleaseDate());
 		s.printRow("devStatus", devStatus);
 		s.printRow("supportStatus", supportStatus);
 		s.printRow("founders", founders);
@@ -244,21 +585,329 @@ public class ComponentIndex {
 		s.printRow("maintainers", maintainers);
 		s.printRow("contributors", contributors);
 		s.printRow("otherDevs", otherDevs);
-		s.printRow("neededRoles", neededRoles(leadCount, leads, developerCount,
-			developers, debuggerCount, debuggers, reviewerCount, reviewers,
-			supportCount, support, maintainerCount, maintainers));
+		s.printRow("neededRoles", neededRoles(meta, roles));
 		s.println("}}");
-		return s.toString();
+	}
+
+	/**
+	 * Gets a fingerprint of the inputs from which the given component's table
+	 * is generated: the project name, the coordinates of the component and of
+	 * its parents, and its place in the dependency graph, if any. Between
+	 * runs, a table whose fingerprint is the same is the same too.
+	 * 
+	 * @return The fingerprint, or null if there is none, because the table may
+	 *         change anyway, as for {@code SNAPSHOT} versions.
+	 */
+	public String getFingerprint(final POMSummary pom) {
+		final StringBuilder sb = new StringBuilder(TABLE_FORMAT);
+		sb.append('|').append(getBaseName());
+		if (!appendLineage(sb, pom)) return null;
+		if (graph != null) {
+			final int id = graph.indexOf(pom.getGroupId() + ":" + pom
+				.getArtifactId());
+			if (id >= 0) sb.append('|').append(path(id));
+		}
+		return WikiUpdater.contentHash(sb);
+	}
+
+	/**
+	 * Gets a fingerprint of the inputs from which the master table is
+	 * generated: the coordinates of each component and of its parents, in
+	 * order.
+	 * 
+	 * @return The fingerprint, or null if there is none.
+	 * @see #getFingerprint(POMSummary)
+	 */
+	public String getMasterFingerprint() {
+		final StringBuilder sb = new StringBuilder(TABLE_FORMAT);
+		for (final POMSummary pom : poms) {
+			if (!appendLineage(sb, pom)) return null;
+		}
+		return WikiUpdater.contentHash(sb);
 	}
 
 	// -- Internal methods --
 
-	private boolean isRelevant(final POM pom) {
+	/**
+	 * Appends the coordinates of the given POM and its parents, unless any is a
+	 * {@code SNAPSHOT}, or cannot be read.
+	 */
+	private boolean appendLineage(final StringBuilder sb, final POMSummary pom) {
+		if (!isLineageComplete(pom)) return false;
+		final List<POMSummary> lineage = lineage(pom);
+		sb.append('|');
+		for (final POMSummary p : lineage) {
+			final String v = p.getVersion();
+			if (v == null || v.endsWith("-SNAPSHOT")) return false;
+			sb.append(p.getGAV()).append(';');
+		}
+		return true;
+	}
+
+	private boolean isRelevant(final POMSummary pom) {
 		return deps.containsKey(pom.getGroupId() + ":" + pom.getArtifactId());
 	}
 
+	/**
+	 * Locates the POM of each run-time dependency by its coordinates, in the
+	 * local repository, on the class path or in the remote repository. Versions
+	 * which are not declared literally are resolved from the project's
+	 * properties and dependency management, as Maven would. The {@code G:A} of
+	 * each dependency which cannot be located is added to {@link #missing}.
+	 */
+	private void resolveDirectly(final List<POMSummary> lineage,
+		final List<Dependency> dependencies)
+	{
+		locateAll(coordinates(lineage, dependencies, Dependency::isRuntime,
+			null));
+	}
+
+	/**
+	 * Locates the POMs with the given coordinates concurrently, adding them to
+	 * {@link #poms} in order, and the {@code G:A} of each which cannot be
+	 * located to {@link #missing}.
+	 */
+	private void locateAll(final List<String[]> coords) {
+		final List<Future<POMSummary>> futures = new ArrayList<>();
+		for (final String[] gav : coords) {
+			final FutureTask<POMSummary> task = new FutureTask<>(() -> locate(gav));
+			if (executor == null) task.run();
+			else executor.execute(task);
+			futures.add(task);
+		}
+		for (int i = 0; i < futures.size(); i++) {
+			final String ga = coords.get(i)[0] + ":" + coords.get(i)[1];
+			try {
+				final POMSummary pom = futures.get(i).get();
+				if (pom == null) missing.add(ga);
+				else poms.add(pom);
+			}
+			catch (final ExecutionException exc) {
+				missing.add(ga);
+			}
+			catch (final InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				missing.add(ga);
+			}
+		}
+	}
+
+	/**
+	 * Locates the POMs of the given component's dependencies which are followed
+	 * in transitive mode, one by one; the graph expands components
+	 * concurrently.
+	 */
+	private List<POMSummary> dependencyPOMs(final POMSummary pom,
+		final int depth) throws IOException
+	{
+		final Predicate<Dependency> followed = dep -> {
+			if (dep.isOptional()) return false;
+			final String scope = dep.getScope() == null ? "compile" : dep.getScope();
+			// NB: Maven does not pass on test or provided dependencies.
+			if (depth > 0 && (scope.equals("test") || scope.equals("provided"))) {
+				return false;
+			}
+			return scopes.contains(scope);
+		};
+		final List<String[]> coords = coordinates(lineage(pom), //
+			dependencies(pom), followed, depth > 0 ? rootManaged : null);
+		final List<POMSummary> found = new ArrayList<>();
+		for (final String[] gav : coords) {
+			POMSummary dep;
+			try {
+				dep = locate(gav);
+			}
+			catch (final IOException exc) {
+				dep = null;
+			}
+			if (dep == null) missing.add(gav[0] + ":" + gav[1]);
+			else found.add(dep);
+		}
+		return found;
+	}
+
+	/**
+	 * Resolves the coordinates of the given dependencies which pass the filter,
+	 * each {@code G:A} once, in declaration order.
+	 * 
+	 * @param overrides Versions by {@code G:A} which take precedence over those
+	 *          declared or managed by the lineage, or null for none.
+	 * @return The {@code G}, {@code A} and {@code V} of each dependency, where
+	 *         {@code V} is null if the version cannot be resolved.
+	 */
+	private List<String[]> coordinates(final List<POMSummary> lineage,
+		final List<Dependency> dependencies, final Predicate<Dependency> filter,
+		final Map<String, String> overrides)
+	{
+		final Map<String, String> properties = properties(lineage);
+		final Map<String, String> managed = managed(lineage);
+
+		final Set<String> gas = new LinkedHashSet<>();
+		final List<String[]> coords = new ArrayList<>();
+		for (final Dependency dep : dependencies) {
+			if (!filter.test(dep)) continue;
+			final String depG = interpolate(dep.getGroupId(), properties);
+			final String depA = interpolate(dep.getArtifactId(), properties);
+			final String ga = depG + ":" + depA;
+			if (!gas.add(ga)) continue;
+			final String override = overrides == null ? null : overrides.get(ga);
+			final String declared = dep.getVersion() == null ? //
+				managed.get(dep.getGroupId() + ":" + dep.getArtifactId()) : //
+				dep.getVersion();
+			final String depV = override != null ? override : //
+				interpolate(declared, properties);
+			coords.add(new String[] { depG, depA, depV });
+		}
+		return coords;
+	}
+
+	/**
+	 * Locates the POM with the given coordinates; if the version is unknown, a
+	 * POM of any version on the class path will do.
+	 * 
+	 * @return The POM, or null if it cannot be located.
+	 */
+	private POMSummary locate(final String[] gav) throws IOException {
+		return gav[2] == null ? classpathPOM(gav[0], gav[1], null) : //
+			fetchPOM(gav[0], gav[1], gav[2]);
+	}
+
+	/**
+	 * Fetches the parent chains and release dates of the project and all its
+	 * components concurrently, so that later lookups are served from the POM
+	 * and release date caches. Chains which share a parent wait for a single
+	 * fetch of that parent. Components whose metadata is already in the
+	 * {@link MetadataStore} need no parents, so their chains are not fetched.
+	 * <p>
+	 * This happens once, on the first metadata lookup, so that the store set
+	 * after construction is consulted. It does nothing without an executor.
+	 * </p>
+	 */
+	private synchronized void resolveParents() {
+		if (parentsResolved || executor == null) return;
+		parentsResolved = true;
+		try (final Metrics.Stopwatch sw = metrics.start("phase.parents")) {
+			final MetadataStore store = metadataStore;
+			final List<POMSummary> children = new ArrayList<>(poms);
+			children.add(project);
+			final List<Future<?>> futures = new ArrayList<>();
+			for (final POMSummary child : children) {
+				futures.add(executor.submit(() -> {
+					final String gav = child.getGroupId() + ":" + //
+						child.getArtifactId() + ":" + child.getVersion();
+					final ComponentMetadata meta = loadMetadata(child, store, //
+						store == null ? null : store.validator(child));
+					if (meta != null) {
+						metadata.putIfAbsent(gav, meta);
+						return null;
+					}
+					if (store != null) unstored.add(gav);
+					releaseDates.get(child, repositories.getRemote());
+					POMSummary pom = child;
+					while (pom != null) pom = parent(pom);
+					return null;
+				}));
+			}
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					futures.get(i).get();
+				}
+				catch (final ExecutionException exc) {
+					// NB: Not fatal here; the error resurfaces if the parent is needed.
+					if (exc.getCause() instanceof FileNotFoundException) continue;
+					System.err.println("Cannot resolve parents of " + //
+						children.get(i).getGroupId() + ":" + //
+						children.get(i).getArtifactId() + ": " + exc.getCause());
+				}
+				catch (final InterruptedException exc) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Loads the metadata of the given component from the given store, if it is
+	 * there and still valid.
+	 * 
+	 * @return The metadata, or null if the store is null or has no valid entry.
+	 */
+	private ComponentMetadata loadMetadata(final POMSummary pom,
+		final MetadataStore store, final String validator)
+	{
+		if (store == null) return null;
+		final ComponentMetadata meta = store.load(pom.getGroupId(), pom
+			.getArtifactId(), pom.getVersion(), validator);
+		// NB: Release dates are not stored with the metadata; see ReleaseDates.
+		return meta == null ? null : meta.withReleaseDate(releaseDates.get(pom,
+			repositories.getRemote()));
+	}
+
+	/**
+	 * Extracts the effective metadata needed by the tables from the given POM,
+	 * walking its parent chain once: licenses, developers and contributors are
+	 * inherited from the nearest POM which declares any, while properties are
+	 * merged, with the nearest declaration of each winning.
+	 */
+	private ComponentMetadata extractMetadata(final POMSummary pom) {
+		final ComponentMetadata.Builder meta = new ComponentMetadata.Builder();
+		meta.coordinates(pom.getGroupId(), pom.getArtifactId(), pom.getVersion());
+		meta.name(pom.getProjectName());
+		meta.description(pom.getProjectDescription());
+		meta.url(pom.getProjectURL());
+		meta.scm(pom.getSCMURL(), pom.getSCMTag());
+		meta.releaseDate(releaseDates.get(pom, repositories.getRemote()));
+		POMSummary ancestor = pom;
+		while (ancestor != null) {
+			inherit(meta, ancestor);
+			ancestor = parent(ancestor);
+		}
+		return meta.build();
+	}
+
+	/** Adds whatever the given POM declares which is not yet known. */
+	private void inherit(final ComponentMetadata.Builder meta,
+		final POMSummary pom)
+	{
+		if (!meta.hasLicenses()) {
+			for (final License license : pom.getLicenses()) {
+				meta.license(license);
+			}
+		}
+		if (!meta.hasDevelopers()) {
+			for (final Person developer : pom.getDevelopers()) {
+				meta.developer(developer);
+			}
+		}
+		if (!meta.hasContributors()) {
+			for (final Person contributor : pom.getContributors()) {
+				meta.contributor(contributor);
+			}
+		}
+		// NB: Only the scijava.* properties are of interest to the tables.
+		for (final Map.Entry<String, String> property : pom.getProperties()
+			.entrySet())
+		{
+			final String key = property.getKey();
+			if (key.startsWith("scijava.")) {
+				meta.propertyIfAbsent(key, property.getValue());
+			}
+		}
+	}
+
 	// -- Helper methods - link building --
 
+	/** Gets the artifact IDs along the given node's path from the project. */
+	private String path(final int id) {
+		final StringBuilder sb = new StringBuilder();
+		for (final int node : graph.getPath(id)) {
+			if (sb.length() > 0) sb.append(" > ");
+			sb.append(graph.getPOM(node).getArtifactId());
+		}
+		return sb.toString();
+	}
+
 	private String mavenLink(final String g, final String a) {
 		return "{{Maven | g=" + g + " | a=" + a + " | label=" + a + "}}";
 	}
@@ -304,13 +953,12 @@ public class ComponentIndex {
 		return a + "-" + v;
 	}
 
-	private String licenseLinks(final POM pom) {
-		final ArrayList<Element> licenses = licenses(pom);
+	private String licenseLinks(final ComponentMetadata meta) {
 		final StringBuilder sb = new StringBuilder();
-		for (final Element license : licenses) {
-			final String name = XML.cdata(license, "name");
+		for (final License license : meta.getLicenses()) {
+			final String name = license.getName();
 			if (name == null) continue;
-			final String url = XML.cdata(license, "url");
+			final String url = license.getURL();
 
 			final String knownLicense = KNOWN_LICENSES.get(name);
 
@@ -321,19 +969,6 @@ public class ComponentIndex {
 		return sb.toString();
 	}
 
-	private Date releaseDate(final POM pom) {
-		try {
-			final Manifest m = Manifest.getManifest(pom);
-			if (m == null) return null;
-			final String date = m.getImplementationDate();
-			if (date == null) return null;
-			return new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").parse(date);
-		}
-		catch (final IOException | ParseException exc) {
-			return null;
-		}
-	}
-
 	private String devStatus(final String v, final Items devDevelopers,
 		final boolean obsolete)
 	{
@@ -348,120 +983,65 @@ public class ComponentIndex {
 			" | reviewer=" + yn(reviewers) + " | support=" + yn(support) + "}}";
 	}
 
-	private String teamLinks(final POM pom) {
-		final ArrayList<Element> developers = developers(pom);
+	private String teamLinks(final ComponentMetadata meta) {
 		final StringBuilder sb = new StringBuilder();
-		for (final Element developer : developers) {
-			final String id = XML.cdata(developer, "id");
-			final String name = XML.cdata(developer, "name");
+		for (final Person developer : meta.getDevelopers()) {
 			if (sb.length() > 0) sb.append(", ");
-			sb.append(personLink(id, name));
+			sb.append(personLink(developer.getId(), developer.getName()));
 		}
 		return sb.toString();
 	}
 
-	private Items founderLinks(final POM pom) {
-		final Items founders = roleLinks(pom, "founder");
-		// NB: Also add founders currently classified as contributors.
-		for (final Element contributor : contributors(pom)) {
-			final String id = idProperty(contributor);
-			final String name = XML.cdata(contributor, "name");
-			final ArrayList<Element> roles = XML.elements(contributor, "role");
-			for (final Element role : roles) {
-				if ("founder".equalsIgnoreCase(role(role))) {
-					founders.add(personLink(id, name));
-					break;
-				}
-			}
-		}
-		return founders;
-	}
-
-	private Items roleLinks(final POM pom, final String roleName) {
-		final Items devs = new Items();
-		for (final Element developer : developers(pom)) {
-			final String id = XML.cdata(developer, "id");
-			final String name = XML.cdata(developer, "name");
-			final ArrayList<Element> roles = XML.elements(developer, "role");
-			for (final Element role : roles) {
-				if (roleName.equalsIgnoreCase(role(role))) {
-					devs.add(personLink(id, name));
-					break;
-				}
-			}
+	private Items personLinks(final List<Person> people) {
+		final Items items = new Items();
+		for (final Person person : people) {
+			items.add(personLink(person.getId(), person.getName()));
 		}
-		return devs;
+		return items;
 	}
 
-	private Items otherDevs(final POM pom, final String... knownRoles) {
+	private Items otherDevs(final RoleIndex roles) {
 		final Items devs = new Items();
-		for (final Element developer : developers(pom)) {
-			final ArrayList<Element> roles = XML.elements(developer, "role");
-			final String unknownRoles = unknownRoles(roles, knownRoles);
-			if (!unknownRoles.isEmpty()) {
-				final String name = XML.cdata(developer, "name");
-				devs.add(personLink(null, name + " (" + unknownRoles + ")"));
-			}
+		for (final Map.Entry<Person, List<String>> entry : roles.getUnknownRoles()
+			.entrySet())
+		{
+			final String name = entry.getKey().getName();
+			final String unknownRoles = String.join(", ", entry.getValue());
+			devs.add(personLink(null, name + " (" + unknownRoles + ")"));
 		}
 		return devs;
 	}
 
-	private String unknownRoles(final ArrayList<Element> roles,
-		final String[] knownRoles)
-	{
-		final StringBuilder sb = new StringBuilder();
-		for (final Element role : roles) {
-			final String r = role(role);
-			if (!isKnownRole(r, knownRoles)) {
-				if (sb.length() > 0) sb.append(", ");
-				sb.append(r);
-			}
-		}
-		return sb.toString();
-	}
-
-	private boolean isKnownRole(final String role, final String[] knownRoles) {
-		for (final String knownRole : knownRoles) {
-			if (knownRole.equals(role)) return true;
-		}
-		return false;
-	}
-
-	private String role(final Element role) {
-		final String value = XML.cdata(role).trim();
-		final int paren = value.indexOf('(');
-		return paren < 0 ? value : value.substring(0, paren).trim();
-	}
-
-	private Items neededRoles(final int leadCount, final Items leads,
-		final int developerCount, final Items developers, final int debuggerCount,
-		final Items debuggers, final int reviewerCount, final Items reviewers,
-		final int supportCount, final Items support, final int maintainerCount,
-		final Items maintainers)
+	private Items neededRoles(final ComponentMetadata meta,
+		final RoleIndex roles)
 	{
 		final Items neededRoles = new Items();
-		neededRole(neededRoles, "leads", leadCount, leads.size());
-		neededRole(neededRoles, "developers", developerCount, developers.size());
-		neededRole(neededRoles, "debuggers", debuggerCount, debuggers.size());
-		neededRole(neededRoles, "reviewers", reviewerCount, reviewers.size());
-		neededRole(neededRoles, "support", supportCount, support.size());
-		neededRole(neededRoles, "maintainers", maintainerCount, maintainers.size());
+		neededRole(neededRoles, meta, roles, "leads", "leads", "lead");
+		neededRole(neededRoles, meta, roles, "developers", "developers",
+			"developer");
+		neededRole(neededRoles, meta, roles, "debuggers", "debuggers", "debugger");
+		neededRole(neededRoles, meta, roles, "reviewers", "reviewers", "reviewer");
+		neededRole(neededRoles, meta, roles, "support", "supports", "support");
+		neededRole(neededRoles, meta, roles, "maintainers", "maintainers",
+			"maintainer");
 		return neededRoles;
 	}
 
-	private void neededRole(final Items neededRoles, final String name,
-		final int total, final int current)
+	private void neededRole(final Items neededRoles,
+		final ComponentMetadata meta, final RoleIndex roles, final String name,
+		final String property, final String role)
 	{
-		final int needed = total - current;
+		final int total = propertyNumber(meta, "scijava.team." + property);
+		final int needed = total - roles.count(role);
 		if (needed > 0) neededRoles.add(name + " (" + needed + ")");
 	}
 
-	private Items contributorLinks(final POM pom) {
+	private Items contributorLinks(final ComponentMetadata meta) {
 		final Items items = new Items();
-		for (final Element contributor : contributors(pom)) {
-			final String id = idProperty(contributor);
-			final String name = XML.cdata(contributor, "name");
-			final String url = XML.cdata(contributor, "url");
+		for (final Person contributor : meta.getContributors()) {
+			final String id = contributor.getId();
+			final String name = contributor.getName();
+			final String url = contributor.getURL();
 			items.add(id == null ? link(name, url) : personLink(id, name));
 		}
 		return items;
@@ -484,98 +1064,295 @@ public class ComponentIndex {
 		return "[" + url + " " + label + "]";
 	}
 
-	// -- Helper methods - XML --
-
-	private String idProperty(final Element el) {
-		final NodeList propNodes = el.getElementsByTagName("properties");
-		if (propNodes == null || propNodes.getLength() == 0) return null;
-		return XML.cdata((Element) propNodes.item(0), "id");
-	}
-
-	private String property(final POM pom, final String key) {
-		return pom.cdata("//project/properties/" + key);
-	}
+	// -- Helper methods - properties --
 
-	private boolean propertyFlag(final POM pom, final String key) {
-		return "true".equalsIgnoreCase(property(pom, key));
+	private boolean propertyFlag(final ComponentMetadata meta,
+		final String key)
+	{
+		return "true".equalsIgnoreCase(meta.getProperty(key));
 	}
 
-	private int propertyNumber(final POM pom, final String key) {
+	private int propertyNumber(final ComponentMetadata meta, final String key) {
 		try {
-			return Integer.parseInt(property(pom, key));
+			return Integer.parseInt(meta.getProperty(key));
 		}
 		catch (final NumberFormatException exc) {
 			return -1;
 		}
 	}
 
-	private ArrayList<Element> dependencies(final POM pom) {
-		return elements(pom, "//project/dependencies/dependency");
+	// -- Helper methods - POMs --
+
+	/**
+	 * Gets the dependencies of the given POM. If it declares none, they are
+	 * inherited from its parent.
+	 */
+	private List<Dependency> dependencies(final POMSummary pom) {
+		POMSummary declarer = pom;
+		while (declarer != null && declarer.getDependencies().isEmpty()) {
+			declarer = parent(declarer);
+		}
+		return declarer == null ? new ArrayList<>() : declarer.getDependencies();
 	}
 
-	private ArrayList<Element> licenses(final POM pom) {
-		return elements(pom, "//project/licenses/license");
+	/**
+	 * Gets the versions managed by the given lineage, by (uninterpolated)
+	 * {@code G:A}, with the nearest declaration of each winning.
+	 */
+	private Map<String, String> managed(final List<POMSummary> lineage) {
+		final Map<String, String> managed = new HashMap<>();
+		for (final POMSummary pom : lineage) {
+			for (final Dependency dep : pom.getManagedDependencies()) {
+				managed.putIfAbsent(dep.getGroupId() + ":" + dep.getArtifactId(), //
+					dep.getVersion());
+			}
+		}
+		return managed;
 	}
 
-	private ArrayList<Element> developers(final POM pom) {
-		return elements(pom, "//project/developers/developer");
+	/**
+	 * Gets the coordinates of the components whose versions the given POM
+	 * manages, by interpolated {@code G:A}: first those managed by the POM and
+	 * its ancestors, nearest first, then those managed by each BOM they import,
+	 * in turn. As in Maven, the first version of each component wins.
+	 * 
+	 * @param imported The {@code G:A:V} of each BOM imported so far, so that
+	 *          none is imported twice.
+	 */
+	private Map<String, String[]> managedCoordinates(final POMSummary pom,
+		final Set<String> imported) throws IOException
+	{
+		final List<POMSummary> lineage = lineage(pom);
+		final Map<String, String> properties = properties(lineage);
+		final Map<String, String[]> managed = new LinkedHashMap<>();
+		final List<String[]> boms = new ArrayList<>();
+		for (final POMSummary p : lineage) {
+			for (final Dependency dep : p.getManagedDependencies()) {
+				final String g = interpolate(dep.getGroupId(), properties);
+				final String a = interpolate(dep.getArtifactId(), properties);
+				final String v = interpolate(dep.getVersion(), properties);
+				if (g == null || a == null || v == null) continue;
+				final String[] gav = { g, a, v };
+				if (dep.isImport()) boms.add(gav);
+				else managed.putIfAbsent(g + ":" + a, gav);
+			}
+		}
+		for (final String[] bom : boms) {
+			if (!imported.add(bom[0] + ":" + bom[1] + ":" + bom[2])) continue;
+			final Map<String, String[]> bomManaged;
+			try {
+				bomManaged = managedCoordinates(fetchPOM(bom[0], bom[1], bom[2]),
+					imported);
+			}
+			catch (final IOException exc) {
+				System.err.println("Cannot import BOM " + bom[0] + ":" + bom[1] +
+					":" + bom[2] + ": " + exc);
+				continue;
+			}
+			for (final Map.Entry<String, String[]> e : bomManaged.entrySet()) {
+				managed.putIfAbsent(e.getKey(), e.getValue());
+			}
+		}
+		return managed;
 	}
 
-	private ArrayList<Element> contributors(final POM pom) {
-		return elements(pom, "//project/contributors/contributor");
+	/** Checks whether every ancestor which the given POM declares exists. */
+	private boolean isLineageComplete(final POMSummary pom) {
+		for (POMSummary p = pom; p != null; p = parent(p)) {
+			if (p.getParentGroupId() == null || p.getParentArtifactId() == null ||
+				p.getParentVersion() == null) return true;
+		}
+		return false;
 	}
 
-	private ArrayList<Element> elements(final POM pom, final String expr) {
-		if (pom == null) return new ArrayList<>();
-		final ArrayList<Element> elements = pom.elements(expr);
-		try {
-			return elements.isEmpty() ? elements(parent(pom), expr) : elements;
+	/** Gets the given POM, followed by its ancestors, nearest first. */
+	private List<POMSummary> lineage(final POMSummary pom) {
+		final List<POMSummary> lineage = new ArrayList<>();
+		for (POMSummary p = pom; p != null; p = parent(p)) {
+			lineage.add(p);
 		}
-		catch (final ParserConfigurationException | SAXException
-				| IOException exc)
-		{
-			throw new RuntimeException(exc);
+		return lineage;
+	}
+
+	/**
+	 * Gets the properties with which the given lineage's values are
+	 * interpolated, including the built-in {@code project.*} ones.
+	 */
+	private Map<String, String> properties(final List<POMSummary> lineage) {
+		final Map<String, String> properties = new HashMap<>();
+		for (final POMSummary pom : lineage) {
+			for (final Map.Entry<String, String> e : pom.getProperties()
+				.entrySet())
+			{
+				properties.putIfAbsent(e.getKey(), e.getValue());
+			}
 		}
+		final POMSummary pom = lineage.get(0);
+		properties.put("project.groupId", pom.getGroupId());
+		properties.put("project.artifactId", pom.getArtifactId());
+		properties.put("project.version", pom.getVersion());
+		if (pom.getParentVersion() != null) {
+			properties.put("project.parent.groupId", pom.getParentGroupId());
+			properties.put("project.parent.artifactId", pom.getParentArtifactId());
+			properties.put("project.parent.version", pom.getParentVersion());
+		}
+		return properties;
 	}
 
-	// -- Helper methods - POMs --
+	/**
+	 * Replaces each {@code ${key}} in the given value with its property.
+	 * 
+	 * @return The interpolated value, or null if a property is unknown.
+	 */
+	private String interpolate(final String value,
+		final Map<String, String> properties)
+	{
+		if (value == null) return null;
+		String result = value;
+		// NB: Properties may refer to other properties, but not endlessly.
+		for (int depth = 0; depth < 10; depth++) {
+			final Matcher m = PROPERTY.matcher(result);
+			if (!m.find()) return result;
+			final StringBuffer sb = new StringBuffer();
+			do {
+				final String replacement = properties.get(m.group(1));
+				if (replacement == null) return null;
+				m.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+			}
+			while (m.find());
+			m.appendTail(sb);
+			result = sb.toString();
+		}
+		return null;
+	}
 
-	private POM parent(final POM pom) throws ParserConfigurationException,
-		SAXException, IOException
+	/**
+	 * Reads the POM of the given artifact from a JAR on the class path, without
+	 * scanning the others.
+	 * 
+	 * @param v The version to match, or null for any version.
+	 * @return The POM, or null if there is no such POM on the class path.
+	 */
+	private POMSummary classpathPOM(final String g, final String a,
+		final String v) throws IOException
 	{
+		final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		final Enumeration<URL> urls = //
+			loader.getResources("META-INF/maven/" + g + "/" + a + "/pom.xml");
+		while (urls.hasMoreElements()) {
+			final POMSummary pom = POMSummary.read(urls.nextElement());
+			if (v == null || v.equals(pom.getVersion())) return pom;
+		}
+		return null;
+	}
+
+	/**
+	 * Gets the parent of the given POM, or null if it has none, or if its parent
+	 * does not exist or cannot be read.
+	 */
+	private POMSummary parent(final POMSummary pom) {
 		if (pom == null) return null;
 		final String parentG = pom.getParentGroupId();
 		final String parentA = pom.getParentArtifactId();
 		final String parentV = pom.getParentVersion();
 		if (parentG == null || parentA == null || parentV == null) return null;
-		return fetchPOM(parentG, parentA, parentV);
+		try {
+			return fetchPOM(parentG, parentA, parentV);
+		}
+		catch (final IOException exc) {
+			// NB: A missing or unreadable parent ends the lineage, rather than the
+			// whole index; it is listed once in the summary of missing POMs.
+			return null;
+		}
 	}
 
-	private POM fetchPOM(final String g, final String a, final String v)
-		throws ParserConfigurationException, SAXException, IOException
+	private POMSummary fetchPOM(final String g, final String a,
+		final String v) throws IOException
 	{
 		if (g == null) throw new NullPointerException("Null groupId");
 		if (a == null) throw new NullPointerException("Null artifactId");
 		if (v == null) throw new NullPointerException("Null version");
 		final String gav = g + ":" + a + ":" + v;
-		POM pom = pomCache.get(gav);
-		if (pom == null) {
-			final File file = new File(System.getProperty("user.home") +
-				"/.m2/repository/" + g.replace('.', '/') + //
-				"/" + a + "/" + v + "/" + a + "-" + v + ".pom");
-			if (file.exists()) {
-				// read from Maven local repository cache
-				pom = new POM(file);
+		return pomCache.get(repositories.cacheKey(gav), () -> {
+			final FlightEvents.POMFetch event = new FlightEvents.POMFetch();
+			event.begin();
+			final POMSummary pom;
+			try {
+				pom = loadPOM(g, a, v, event);
+			}
+			catch (final FileNotFoundException exc) {
+				throw exc;
+			}
+			catch (final IOException exc) {
+				missingPOMs.addUnreadable(gav, exc);
+				throw exc;
+			}
+			if (event.shouldCommit()) {
+				event.gav = gav;
+				event.commit();
 			}
-			else {
-				// read from remote SciJava Maven repository
-				final String url = "https://maven.scijava.org/content/groups/public/" +
-					g.replace('.', '/') + "/" + a + "/" + v + "/" + a + "-" + v + ".pom";
-				pom = new POM(new URL(url));
+			return pom;
+		});
+	}
+
+	/** Reads the POM with the given coordinates from wherever it is found. */
+	private POMSummary loadPOM(final String g, final String a, final String v,
+		final FlightEvents.POMFetch event) throws IOException
+	{
+		final String path = g.replace('.', '/') + "/" + a + "/" + v + "/" + a +
+			"-" + v + ".pom";
+		final File file = new File(repositories.getLocal(), path);
+		if (file.exists()) {
+			// read from Maven local repository cache
+			try (final Metrics.Stopwatch sw = metrics.start("pom.local")) {
+				event.source = "local";
+				event.bytes = file.length();
+				metrics.count("pom.local.bytes", event.bytes);
+				return POMSummary.read(file);
+			}
+		}
+		try (final Metrics.Stopwatch sw = metrics.start("pom.classpath")) {
+			final POMSummary jarPOM = classpathPOM(g, a, v);
+			if (jarPOM != null) {
+				event.source = "classpath";
+				return jarPOM;
 			}
-			pomCache.put(gav, pom);
 		}
-		return pom;
+		// read from remote Maven repositories, unless known to be missing
+		final String gav = g + ":" + a + ":" + v;
+		if (missingPOMs.isMissing(gav)) {
+			metrics.count("pom.missing", 1);
+			throw new FileNotFoundException("Missing POM: " + gav);
+		}
+		final RepositoryMirrors remote = repositories.getRemote();
+		final String ga = g + ":" + a;
+		event.source = "remote";
+		try (final Metrics.Stopwatch sw = metrics.start("pom.remote");
+				final Metrics.CountingInputStream in = metrics.count(
+					"pom.remote.bytes", remote.open(ga, path)))
+		{
+			final POMSummary pom = POMSummary.read(in, remote.getURL(ga, path)
+				.getPath());
+			event.bytes = in.getCount();
+			return pom;
+		}
+		catch (final FileNotFoundException exc) {
+			// NB: Only POMs which no repository has are remembered as missing;
+			// other errors may be transient.
+			missingPOMs.add(gav);
+			throw exc;
+		}
+	}
+
+	private static synchronized ExecutorService defaultExecutor() {
+		if (defaultExecutor == null) {
+			defaultExecutor = Executors.newFixedThreadPool(DEFAULT_THREADS, r -> {
+				final Thread t = new Thread(r, "ComponentIndex-resolver");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return defaultExecutor;
 	}
 
 	// -- Helper methods - succinctness --
@@ -590,31 +1367,73 @@ public class ComponentIndex {
 
 	// -- Helper classes --
 
-	private static class Stringer {
+	/** The ways in which the POMs of a project's dependencies can be found. */
+	public enum Resolution {
+
+		/**
+		 * Scans the class path for all POMs, keeping those of the project's
+		 * dependencies. The index then describes the versions on the class path.
+		 */
+		CLASSPATH,
+
+		/**
+		 * Locates the POM of each of the project's run-time dependencies by its
+		 * coordinates: in the local repository, on the class path, or remotely.
+		 * Dependencies which cannot be located are left out.
+		 */
+		DIRECT,
+
+		/**
+		 * Like {@link #DIRECT}, but falls back to scanning the class path for
+		 * dependencies which cannot be located by their coordinates.
+		 */
+		DIRECT_OR_CLASSPATH,
+
+		/**
+		 * Indexes every component whose version the project manages, as a BOM
+		 * such as {@code pom-scijava} does: in its own
+		 * {@code <dependencyManagement>}, those of its parents, or those of the
+		 * BOMs they import. Each POM is located by its coordinates, as with
+		 * {@link #DIRECT}, rather than the project's dependencies.
+		 */
+		MANAGED
+	}
+
+	/** Writes the lines of a table to a sink, as they are generated. */
+	private static class TableWriter {
 
-		private final StringBuilder sb = new StringBuilder();
+		private final Appendable out;
 
-		public void print(final Object... obj) {
-			for (final Object o : obj)
-				sb.append(o == null ? "" : o);
+		/** Number of characters written so far. */
+		private long count;
+
+		public TableWriter(final Appendable out) {
+			this.out = out;
 		}
 
-		public void println(final Object... o) {
+		public void print(final Object... obj) throws IOException {
+			for (final Object o : obj) {
+				if (o == null) continue;
+				final String s = o.toString();
+				out.append(s);
+				count += s.length();
+			}
+		}
+
+		public void println(final Object... o) throws IOException {
 			print(o);
-			sb.append("\n");
+			out.append('\n');
+			count++;
 		}
 
-		public void printRow(final String key, final Object value) {
+		public void printRow(final String key, final Object value)
+			throws IOException
+		{
 			if (value == null) return;
 			final String sValue = value.toString();
 			if (sValue.isEmpty()) return;
 			println("| ", key, " = ", sValue);
 		}
-
-		@Override
-		public String toString() {
-			return sb.toString();
-		}
 	}
 
 	private static class Items extends ArrayList<String> {
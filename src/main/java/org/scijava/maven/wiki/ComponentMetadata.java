@@ -0,0 +1,318 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+package org.scijava.maven.wiki;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The effective metadata of a single component, as extracted from its POM (with
+ * inheritance from its parent POMs applied) and its artifact's manifest.
+ * <p>
+ * This is everything {@link ComponentIndex} needs in order to generate its
+ * tables, so that once extracted, the POM's XML does not need to be consulted
+ * again. Instances are immutable, and hence safe to share between threads; they
+ * are created via a {@link Builder}, and can be persisted between runs via
+ * {@link MetadataStore}.
+ * </p>
+ */
+public class ComponentMetadata {
+
+	private final String groupId, artifactId, version;
+	private final String name, description, url;
+	private final String scmURL, scmTag;
+	private final Long releaseDate;
+
+	private final List<License> licenses;
+	private final List<Person> developers;
+	private final List<Person> contributors;
+	private final Map<String, String> properties;
+
+	private ComponentMetadata(final Builder b) {
+		groupId = b.groupId;
+		artifactId = b.artifactId;
+		version = b.version;
+		name = b.name;
+		description = b.description;
+		url = b.url;
+		scmURL = b.scmURL;
+		scmTag = b.scmTag;
+		releaseDate = b.releaseDate == null ? null : b.releaseDate.getTime();
+		licenses = Collections.unmodifiableList(new ArrayList<>(b.licenses));
+		developers = Collections.unmodifiableList(new ArrayList<>(b.developers));
+		contributors = //
+			Collections.unmodifiableList(new ArrayList<>(b.contributors));
+		properties = //
+			Collections.unmodifiableMap(new LinkedHashMap<>(b.properties));
+	}
+
+	// -- ComponentMetadata methods --
+
+	public String getGroupId() {
+		return groupId;
+	}
+
+	public String getArtifactId() {
+		return artifactId;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public String getGAV() {
+		return groupId + ":" + artifactId + ":" + version;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public String getURL() {
+		return url;
+	}
+
+	public String getSCMURL() {
+		return scmURL;
+	}
+
+	public String getSCMTag() {
+		return scmTag;
+	}
+
+	/** Gets the release date from the artifact's manifest, or null if unknown. */
+	public Date getReleaseDate() {
+		return releaseDate == null ? null : new Date(releaseDate);
+	}
+
+	/** Gets the licenses, as declared by the POM or its nearest ancestor. */
+	public List<License> getLicenses() {
+		return licenses;
+	}
+
+	/** Gets the developers, as declared by the POM or its nearest ancestor. */
+	public List<Person> getDevelopers() {
+		return developers;
+	}
+
+	/** Gets the contributors, as declared by the POM or its nearest ancestor. */
+	public List<Person> getContributors() {
+		return contributors;
+	}
+
+	/** Gets the POM property with the given key, or null if unset. */
+	public String getProperty(final String key) {
+		return properties.get(key);
+	}
+
+	/**
+	 * Gets the POM properties, merged with those of its ancestors: where several
+	 * POMs declare the same property, the nearest one wins.
+	 */
+	public Map<String, String> getProperties() {
+		return properties;
+	}
+
+	/** Gets a copy of this metadata, with the given release date. */
+	public ComponentMetadata withReleaseDate(final Date date) {
+		final Builder b = new Builder();
+		b.coordinates(groupId, artifactId, version);
+		b.name(name).description(description).url(url).scm(scmURL, scmTag);
+		b.releaseDate(date);
+		b.licenses.addAll(licenses);
+		b.developers.addAll(developers);
+		b.contributors.addAll(contributors);
+		b.properties.putAll(properties);
+		return b.build();
+	}
+
+	// -- Helper classes --
+
+	/** Assembles an immutable {@link ComponentMetadata} instance. */
+	public static class Builder {
+
+		private String groupId, artifactId, version;
+		private String name, description, url;
+		private String scmURL, scmTag;
+		private Date releaseDate;
+
+		private final List<License> licenses = new ArrayList<>();
+		private final List<Person> developers = new ArrayList<>();
+		private final List<Person> contributors = new ArrayList<>();
+		private final Map<String, String> properties = new LinkedHashMap<>();
+
+		public Builder coordinates(final String g, final String a,
+			final String v)
+		{
+			groupId = g;
+			artifactId = a;
+			version = v;
+			return this;
+		}
+
+		public Builder name(final String name) {
+			this.name = name;
+			return this;
+		}
+
+		public Builder description(final String description) {
+			this.description = description;
+			return this;
+		}
+
+		public Builder url(final String url) {
+			this.url = url;
+			return this;
+		}
+
+		public Builder scm(final String scmURL, final String scmTag) {
+			this.scmURL = scmURL;
+			this.scmTag = scmTag;
+			return this;
+		}
+
+		public Builder releaseDate(final Date releaseDate) {
+			this.releaseDate = releaseDate;
+			return this;
+		}
+
+		public Builder license(final License license) {
+			licenses.add(license);
+			return this;
+		}
+
+		public Builder developer(final Person developer) {
+			developers.add(developer);
+			return this;
+		}
+
+		public Builder contributor(final Person contributor) {
+			contributors.add(contributor);
+			return this;
+		}
+
+		/** Sets the given property, unless it is already set. */
+		public Builder propertyIfAbsent(final String key, final String value) {
+			if (value != null && !properties.containsKey(key)) {
+				properties.put(key, value);
+			}
+			return this;
+		}
+
+		public Builder property(final String key, final String value) {
+			if (value == null) properties.remove(key);
+			else properties.put(key, value);
+			return this;
+		}
+
+		public boolean hasLicenses() {
+			return !licenses.isEmpty();
+		}
+
+		public boolean hasDevelopers() {
+			return !developers.isEmpty();
+		}
+
+		public boolean hasContributors() {
+			return !contributors.isEmpty();
+		}
+
+		public ComponentMetadata build() {
+			return new ComponentMetadata(this);
+		}
+	}
+
+	/** A license, as declared in a POM's {@code <licenses>} section. */
+	public static class License {
+
+		private final String name, url;
+
+		public License(final String name, final String url) {
+			this.name = name;
+			this.url = url;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getURL() {
+			return url;
+		}
+	}
+
+	/** A developer or contributor, as declared in a POM. */
+	public static class Person {
+
+		private final String id, name, url;
+		private final List<String> roles;
+
+		public Person(final String id, final String name, final String url,
+			final List<String> roles)
+		{
+			this.id = id;
+			this.name = name;
+			this.url = url;
+			this.roles = Collections.unmodifiableList(new ArrayList<>(roles));
+		}
+
+		/**
+		 * Gets the person's ID: {@code <id>} for developers, and
+		 * {@code <properties><id>} for contributors.
+		 */
+		public String getId() {
+			return id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public String getURL() {
+			return url;
+		}
+
+		/** Gets the person's roles, minus any parenthetical remarks. */
+		public List<String> getRoles() {
+			return roles;
+		}
+
+		public boolean hasRole(final String role) {
+			for (final String r : roles) {
+				if (role.equalsIgnoreCase(r)) return true;
+			}
+			return false;
+		}
+	}
+
+}
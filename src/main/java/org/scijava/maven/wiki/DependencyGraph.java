@@ -0,0 +1,253 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A project's dependency graph, expanded breadth-first from the project.
+ * <p>
+ * Each component is a node with a compact integer ID: the project is node 0,
+ * and the others are numbered in the order in which they are reached, level by
+ * level. A component reachable along several paths is a single node, at the
+ * depth of its shortest path (the first one declared, among equals); as in
+ * Maven, the nearest version of a component wins. Each node is expanded
+ * exactly once, and the nodes of each level are expanded concurrently.
+ * </p>
+ * <p>
+ * Once expanded, a graph is immutable, and may be read from multiple threads.
+ * </p>
+ */
+public class DependencyGraph {
+
+	/** Maximum depth meaning that the graph is expanded in full. */
+	public static final int UNLIMITED = Integer.MAX_VALUE;
+
+	private static final int[] NONE = {};
+
+	/** Node IDs, by {@code G:A}. */
+	private final HashMap<String, Integer> ids = new HashMap<>();
+
+	private POMSummary[] poms = new POMSummary[64];
+
+	/** Length of each node's shortest path from the project. */
+	private int[] depths = new int[64];
+
+	/** Predecessor of each node along its shortest path, or -1 for none. */
+	private int[] vias = new int[64];
+
+	/** Dependencies of each node, or null if the node was not expanded. */
+	private int[][] edges = new int[64][];
+
+	private int size;
+
+	private DependencyGraph() {
+		// NB: Prevent instantiation except via expand.
+	}
+
+	/**
+	 * Expands the dependency graph of the given project.
+	 * 
+	 * @param root The POM of the project.
+	 * @param maxDepth The depth beyond which dependencies are not followed: 1
+	 *          for the project's own dependencies only, or {@link #UNLIMITED}.
+	 * @param expander Looks up the dependencies of each node.
+	 * @param executor The executor with which the nodes of each level are
+	 *          expanded concurrently. If null, nodes are expanded one by one.
+	 */
+	public static DependencyGraph expand(final POMSummary root,
+		final int maxDepth, final Expander expander, final ExecutorService executor)
+	{
+		final DependencyGraph graph = new DependencyGraph();
+		graph.add(root, -1, 0);
+		int levelStart = 0;
+		for (int depth = 0; depth < maxDepth && levelStart < graph.size; depth++) {
+			final int levelEnd = graph.size;
+			final List<FutureTask<List<POMSummary>>> tasks = new ArrayList<>();
+			for (int id = levelStart; id < levelEnd; id++) {
+				final POMSummary pom = graph.poms[id];
+				final int d = depth;
+				final FutureTask<List<POMSummary>> task = //
+					new FutureTask<>(() -> expander.expand(pom, d));
+				if (executor == null) task.run();
+				else executor.execute(task);
+				tasks.add(task);
+			}
+			// NB: Nodes are numbered in a fixed order, however the tasks finish.
+			for (int id = levelStart; id < levelEnd; id++) {
+				List<POMSummary> deps;
+				try {
+					deps = tasks.get(id - levelStart).get();
+				}
+				catch (final ExecutionException exc) {
+					System.err.println("Cannot expand dependencies of " + //
+						graph.poms[id].getGAV() + ": " + exc.getCause());
+					deps = new ArrayList<>();
+				}
+				catch (final InterruptedException exc) {
+					Thread.currentThread().interrupt();
+					return graph;
+				}
+				graph.link(id, deps);
+			}
+			levelStart = levelEnd;
+		}
+		return graph;
+	}
+
+	// -- DependencyGraph methods --
+
+	/** Gets the number of nodes, including the project itself. */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the ID of the node with the given {@code G:A}, or -1 if the graph has
+	 * no such node.
+	 */
+	public int indexOf(final String ga) {
+		final Integer id = ids.get(ga);
+		return id == null ? -1 : id;
+	}
+
+	public POMSummary getPOM(final int id) {
+		return poms[check(id)];
+	}
+
+	/** Gets the length of the node's shortest path from the project. */
+	public int getDepth(final int id) {
+		return depths[check(id)];
+	}
+
+	/**
+	 * Gets the node's predecessor along its shortest path from the project, or
+	 * -1 for the project itself.
+	 */
+	public int getVia(final int id) {
+		return vias[check(id)];
+	}
+
+	/**
+	 * Gets the IDs of the node's dependencies, in declaration order. Nodes
+	 * beyond the maximum depth have none, since they are not expanded.
+	 */
+	public int[] getDependencies(final int id) {
+		final int[] deps = edges[check(id)];
+		return deps == null ? NONE : deps.clone();
+	}
+
+	/** Gets the node's shortest path, from the project to the node itself. */
+	public int[] getPath(final int id) {
+		final int[] path = new int[getDepth(id) + 1];
+		for (int i = path.length - 1, n = id; i >= 0; i--, n = vias[n]) {
+			path[i] = n;
+		}
+		return path;
+	}
+
+	@Override
+	public String toString() {
+		int edgeCount = 0, maxDepth = 0;
+		for (int id = 0; id < size; id++) {
+			if (edges[id] != null) edgeCount += edges[id].length;
+			maxDepth = Math.max(maxDepth, depths[id]);
+		}
+		return size + " nodes, " + edgeCount + " edges, depth " + maxDepth;
+	}
+
+	// -- Helper methods --
+
+	private int add(final POMSummary pom, final int via, final int depth) {
+		if (size == poms.length) {
+			final int capacity = 2 * size;
+			poms = Arrays.copyOf(poms, capacity);
+			depths = Arrays.copyOf(depths, capacity);
+			vias = Arrays.copyOf(vias, capacity);
+			edges = Arrays.copyOf(edges, capacity);
+		}
+		final int id = size++;
+		poms[id] = pom;
+		depths[id] = depth;
+		vias[id] = via;
+		ids.put(key(pom), id);
+		return id;
+	}
+
+	/** Records the given dependencies of a node, adding those not yet known. */
+	private void link(final int id, final List<POMSummary> deps) {
+		final int[] out = new int[deps.size()];
+		int count = 0;
+		for (final POMSummary dep : deps) {
+			final Integer known = ids.get(key(dep));
+			final int target = known == null ? add(dep, id, depths[id] + 1) : known;
+			// NB: Skip repeated declarations, and dependencies on the project.
+			if (target == 0 || contains(out, count, target)) continue;
+			out[count++] = target;
+		}
+		edges[id] = count == out.length ? out : Arrays.copyOf(out, count);
+	}
+
+	private int check(final int id) {
+		if (id < 0 || id >= size) {
+			throw new IndexOutOfBoundsException("No such node: " + id);
+		}
+		return id;
+	}
+
+	private static boolean contains(final int[] values, final int count,
+		final int value)
+	{
+		for (int i = 0; i < count; i++) {
+			if (values[i] == value) return true;
+		}
+		return false;
+	}
+
+	private static String key(final POMSummary pom) {
+		return pom.getGroupId() + ":" + pom.getArtifactId();
+	}
+
+	// -- Helper classes --
+
+	/** Looks up the dependencies of a node while the graph is expanded. */
+	public interface Expander {
+
+		/**
+		 * Gets the POMs of the given component's dependencies which are to be
+		 * followed, in declaration order.
+		 * 
+		 * @param depth The depth of the component: 0 for the project itself.
+		 */
+		List<POMSummary> expand(POMSummary pom, int depth) throws IOException;
+	}
+
+}
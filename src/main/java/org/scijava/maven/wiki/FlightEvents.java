@@ -0,0 +1,117 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Custom Java Flight Recorder events of the analyzer, one per POM fetched,
+ * table written and page uploaded, so that a recording shows which components
+ * are slow, and how the work of a run overlaps in time.
+ * <p>
+ * Record a run with, e.g.,
+ * {@code -XX:StartFlightRecording=filename=mwmi.jfr,settings=profile}, and
+ * open the recording in JDK Mission Control, or print the events with
+ * {@code jfr print --categories MediaWiki mwmi.jfr}. When no recording is in
+ * progress, the events cost next to nothing: each is allocated and timed, but
+ * not committed, and callers skip computing fields when
+ * {@link Event#isEnabled() disabled}.
+ * </p>
+ */
+final class FlightEvents {
+
+	private static final String CATEGORY = "MediaWiki Maven Info";
+
+	private FlightEvents() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	/** A POM read from where it was found, on a POM cache miss. */
+	@Name("org.scijava.maven.wiki.POMFetch")
+	@Label("POM Fetch")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static class POMFetch extends Event {
+
+		@Label("GAV")
+		String gav;
+
+		@Label("Source")
+		@Description("Where the POM was found: local, classpath or remote")
+		String source;
+
+		@Label("Size")
+		@Description("Size of the POM, or -1 if unknown")
+		@DataAmount
+		long bytes = -1;
+	}
+
+	/** A table written for a component, or for a project's master table. */
+	@Name("org.scijava.maven.wiki.TableRender")
+	@Label("Table Render")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static class TableRender extends Event {
+
+		@Label("GAV")
+		String gav;
+
+		@Label("Table")
+		@Description("Which table: master or component")
+		String table;
+
+		@Label("Characters")
+		long chars;
+	}
+
+	/**
+	 * A page uploaded to the wiki, or skipped, or written in a dry run. An edit
+	 * is first queued, then attempted until it is edited or finally fails.
+	 */
+	@Name("org.scijava.maven.wiki.PageUpload")
+	@Label("Page Upload")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static class PageUpload extends Event {
+
+		@Label("Page")
+		String page;
+
+		@Label("Outcome")
+		@Description("queued, edited, failed, unchanged, up-to-date, " +
+			"duplicate or dry-run")
+		String outcome;
+
+		@Label("Characters")
+		@Description("Length of the page text, or -1 if unknown")
+		long chars = -1;
+	}
+
+}
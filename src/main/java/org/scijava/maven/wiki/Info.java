@@ -23,9 +23,25 @@
 
 package org.scijava.maven.wiki;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.login.LoginException;
 
 /**
  * A spiffy software component table analyzer.
@@ -47,7 +63,10 @@ import java.util.HashSet;
  * </pre>
  * <p>
  * The {@code mwmi.url} is optional; without it, the analyzer performs a dry
- * run, dumping the resultant tables to stdout.
+ * run, dumping the resultant tables to stdout. To process several projects in
+ * one run, set {@code mwmi.job} to a {@link BatchJob job file} listing them.
+ * The other {@code mwmi.*} options, for caching, repositories, resolution,
+ * uploads and reports, are described in the README.
  * </p>
  * 
  * @author Curtis Rueden
@@ -56,38 +75,277 @@ import java.util.HashSet;
  */
 public class Info {
 
+	/** The job being run, or null for a single project. */
+	private final BatchJob job;
+
+	private final Metrics metrics = Metrics.shared();
+	private final URL url;
+	private final MetadataStore metadataStore;
+	private final List<RemoteRepository> remotes = new ArrayList<>();
+	private final RepositoryMirrors mirrors;
+	private final MavenRepositories repositories;
+	private final ReleaseDates releaseDates = ReleaseDates.shared();
+	private final File releaseDatesFile;
+	private final MissingPOMs missingPOMs = MissingPOMs.shared();
+	private final File missingPOMsFile;
+	private final ComponentIndex.Resolution resolution;
+	private final boolean transitive;
+	private final int maxDepth;
+	private final Set<String> scopes;
+	private final boolean parallel, force;
+	private final Integer batchSize, maxLag, uploadThreads, maxRetries;
+	private final Double editRate;
+	private final String outputPath;
+	private final File ledgerFile;
+	private final boolean verifyLedger, incremental;
+	private final File reportFile;
+	private final boolean summary;
+
+	/** The indexed projects, in order, and those which get a base page. */
+	private final List<ComponentIndex> indices = new ArrayList<>();
+	private final Set<ComponentIndex> includeBase = new HashSet<>();
+
+	/**
+	 * Parses the options of the run.
+	 * 
+	 * @param job The job to run, or null for a single project.
+	 */
+	private Info(final BatchJob job) throws IOException {
+		this.job = job;
+		final String urlPath = arg("mwmi.url", false);
+		url = urlPath == null ? null : new URL(urlPath);
+		final String cacheDir = arg("mwmi.cacheDir", false);
+		metadataStore = cacheDir == null ? null : //
+			new MetadataStore(new File(cacheDir));
+		final String remoteArg = arg("mwmi.remoteRepositories", false);
+		for (final String remoteURL : (remoteArg == null ? //
+			RemoteRepository.DEFAULT_URL : remoteArg).trim().split("\\s*,\\s*"))
+		{
+			remotes.add(new RemoteRepository(remoteURL));
+		}
+		mirrors = new RepositoryMirrors(remotes);
+		if (cacheDir != null) mirrors.setCacheDir(new File(cacheDir, ".remote"));
+		final String hedgeDelay = arg("mwmi.hedgeDelay", false);
+		if (hedgeDelay != null) mirrors.setHedgeDelay(Long.parseLong(hedgeDelay));
+		final String repository = arg("mwmi.repository", false);
+		repositories = new MavenRepositories(repository == null ? //
+			MavenRepositories.DEFAULT_LOCAL : new File(repository), mirrors);
+		releaseDatesFile = file("mwmi.releaseDates");
+		if (releaseDatesFile != null) releaseDates.load(releaseDatesFile);
+		releaseDates.setRemoteFallback(flag("mwmi.remoteDates"));
+		missingPOMsFile = file("mwmi.missingPOMs");
+		final String missingTTL = arg("mwmi.missingTTL", false);
+		if (missingTTL != null) {
+			missingPOMs.setTTL(TimeUnit.HOURS.toMillis(Long.parseLong(missingTTL)));
+		}
+		if (missingPOMsFile != null) missingPOMs.load(missingPOMsFile);
+		final ComponentIndex.Resolution resolutionArg = BatchJob.resolution(arg(
+			"mwmi.resolution", false));
+		// NB: The projects of a job are not on the class path.
+		resolution = resolutionArg != null ? resolutionArg : job == null ? //
+			ComponentIndex.Resolution.CLASSPATH : //
+			ComponentIndex.Resolution.DIRECT_OR_CLASSPATH;
+		transitive = flag("mwmi.transitive");
+		final String depthArg = arg("mwmi.depth", false);
+		maxDepth = depthArg == null ? DependencyGraph.UNLIMITED : //
+			Integer.parseInt(depthArg);
+		final String scopesArg = arg("mwmi.scopes", false);
+		scopes = scopesArg == null ? ComponentIndex.DEFAULT_SCOPES : //
+			new LinkedHashSet<>(Arrays.asList(scopesArg.split("\\s*,\\s*")));
+
+		parallel = flag("mwmi.parallel");
+		force = flag("mwmi.force");
+		batchSize = integer("mwmi.batchSize");
+		maxLag = integer("mwmi.maxLag");
+		uploadThreads = integer("mwmi.uploadThreads");
+		final String editRateArg = arg("mwmi.editRate", false);
+		editRate = editRateArg == null ? null : Double.valueOf(editRateArg);
+		maxRetries = integer("mwmi.maxRetries");
+		outputPath = arg("mwmi.output", false);
+		ledgerFile = file("mwmi.ledger");
+		verifyLedger = flag("mwmi.verifyLedger");
+		incremental = flag("mwmi.incremental");
+		if (incremental && ledgerFile == null) {
+			throw new RuntimeException(
+				"The property mwmi.incremental requires mwmi.ledger.");
+		}
+		reportFile = file("mwmi.report");
+		summary = flag("mwmi.summary");
+	}
+
 	// -- Main method --
 
 	public static void main(final String[] args) throws Exception {
-		final String urlPath = arg("mwmi.url", false);
-		final URL url = urlPath == null ? null : new URL(urlPath);
-
-		final int maxProjects = 9;
-		final ArrayList<ComponentIndex> indices = new ArrayList<>(maxProjects);
-		final HashSet<ComponentIndex> includeBase = new HashSet<>();
-		for (int p=1; p<=9; p++) {
-			final boolean first = p == 1;
-			final String num = first ? "" : "" + p;
-			final String g = arg("mwmi.groupId" + num, first);
-			final String a = arg("mwmi.artifactId" + num, first);
-			final String v = arg("mwmi.version" + num, first);
-			if (g == null) break; // no more projects to process
-			final ComponentIndex index = new ComponentIndex(g, a, v);
-			final String name = arg("mwmi.name" + num, false);
-			if (name != null) index.setBaseName(name);
-			indices.add(index);
-			if (arg("mwmi.includeBase" + num, false) != null) includeBase.add(index);
+		final String jobPath = systemProperty("mwmi.job");
+		final BatchJob job = jobPath == null ? null : //
+			BatchJob.load(new File(jobPath));
+		final Info info = new Info(job);
+		if (job == null) info.runProject();
+		else info.runJob();
+		info.update();
+		info.report();
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Indexes the single project given by {@code mwmi.groupId},
+	 * {@code mwmi.artifactId} and {@code mwmi.version}.
+	 */
+	private void runProject() throws IOException {
+		final BatchJob.Project project = new BatchJob.Project("mwmi", //
+			arg("mwmi.groupId", true), arg("mwmi.artifactId", true), //
+			arg("mwmi.version", true), arg("mwmi.name", false), //
+			flag("mwmi.includeBase"), null);
+		add(project, index(project));
+	}
+
+	/**
+	 * Indexes the projects of the job concurrently, sharing the POM and metadata
+	 * caches. A project which cannot be indexed is reported and skipped.
+	 */
+	private void runJob() throws InterruptedException {
+		final List<BatchJob.Project> projects = job.getProjects();
+		if (projects.isEmpty()) {
+			throw new RuntimeException("The job lists no projects.");
+		}
+		final String workersArg = arg("mwmi.workers", false);
+		final int workers = workersArg == null ? Math.min(projects.size(), Runtime
+			.getRuntime().availableProcessors()) : Integer.parseInt(workersArg);
+		if (workers < 1) {
+			throw new RuntimeException("Invalid mwmi.workers: " + workersArg);
+		}
+		final ExecutorService executor = Executors.newFixedThreadPool(workers);
+		final List<Future<ComponentIndex>> futures = new ArrayList<>();
+		for (final BatchJob.Project project : projects) {
+			futures.add(executor.submit(() -> index(project)));
+		}
+		executor.shutdown();
+		for (int p = 0; p < projects.size(); p++) {
+			try {
+				add(projects.get(p), futures.get(p).get());
+			}
+			catch (final ExecutionException exc) {
+				// NB: The other projects are still worth uploading.
+				System.err.println("Cannot index project " + projects.get(p) + ": " +
+					exc.getCause());
+			}
+		}
+		if (indices.isEmpty()) throw new RuntimeException("No projects indexed.");
+	}
+
+	/** Indexes the given project. */
+	private ComponentIndex index(final BatchJob.Project project)
+		throws IOException
+	{
+		final String g = project.getGroupId();
+		final String a = project.getArtifactId();
+		final String v = project.getVersion();
+		final ComponentIndex index;
+		try (final Metrics.Stopwatch sw = metrics.start("phase.index")) {
+			index = transitive ? //
+				new ComponentIndex(g, a, v, maxDepth, scopes, repositories) : //
+				new ComponentIndex(g, a, v, project.getResolution() == null ? //
+					resolution : project.getResolution(), repositories);
 		}
+		if (transitive) {
+			System.err.println("Dependency graph of " + project.getGAV() + ": " +
+				index.getGraph());
+		}
+		if (project.getName() != null) index.setBaseName(project.getName());
+		index.setMetadataStore(metadataStore);
+		return index;
+	}
+
+	private void add(final BatchJob.Project project,
+		final ComponentIndex index)
+	{
+		indices.add(index);
+		if (project.isIncludeBase()) includeBase.add(index);
+	}
 
+	/**
+	 * Generates the pages of the indexed projects and uploads them, or writes
+	 * them out for a dry run, then saves what later runs may reuse.
+	 */
+	private void update() throws IOException, LoginException {
 		final WikiUpdater wikiUpdater = new WikiUpdater(url);
-		for (final ComponentIndex index : indices) {
-			wikiUpdater.update(index, includeBase.contains(index));
+		wikiUpdater.setParallel(parallel);
+		wikiUpdater.setSkipUnchanged(!force);
+		if (batchSize != null) wikiUpdater.setBatchSize(batchSize);
+		if (maxLag != null) wikiUpdater.setMaxLag(maxLag);
+		if (uploadThreads != null || editRate != null || maxRetries != null) {
+			wikiUpdater.setScheduler(new UploadScheduler( //
+				uploadThreads == null ? 1 : uploadThreads, //
+				editRate == null ? 0 : editRate, //
+				maxRetries == null ? 3 : maxRetries));
+		}
+		final Writer output = outputPath == null || url != null ? null : //
+			Files.newBufferedWriter(Paths.get(outputPath));
+		if (output != null) wikiUpdater.setOutput(output);
+		if (ledgerFile != null) {
+			wikiUpdater.setLedger(new UploadLedger(ledgerFile));
+			wikiUpdater.setVerifyLedger(verifyLedger);
+		}
+		wikiUpdater.setIncremental(incremental);
+		try (final Metrics.Stopwatch sw = metrics.start("phase.update")) {
+			wikiUpdater.update(indices, includeBase);
+		}
+		finally {
+			// NB: Record whatever was uploaded, even if the run failed partway.
+			if (wikiUpdater.getLedger() != null) wikiUpdater.getLedger().save();
+			if (output != null) output.close();
+			if (releaseDatesFile != null) releaseDates.save(releaseDatesFile);
+			if (missingPOMsFile != null) missingPOMs.save(missingPOMsFile);
+		}
+
+		if (url != null) {
+			System.err.println("Wiki pages: " + wikiUpdater.getEditCount() +
+				" edited, " + wikiUpdater.getSkipCount() + " unchanged, " + //
+				wikiUpdater.getUpToDateCount() + " up to date, " +
+				wikiUpdater.getRequestsSaved() + " requests saved by batching, " +
+				wikiUpdater.getFailCount() + " failed");
+			System.err.println("Uploads: " + wikiUpdater.getScheduler());
 		}
 	}
 
-	// -- Helper methods --
+	/** Prints the statistics of the run, and writes its metrics report. */
+	private void report() throws IOException {
+		System.err.println("POM cache: " + POMCache.shared());
+		System.err.println("Release dates: " + releaseDates);
+		if (metadataStore != null) {
+			System.err.println("Metadata store: " + metadataStore);
+		}
+		System.err.println("Remote repositories: " + mirrors);
+		final List<String> missed = missingPOMs.getMissedGAVs();
+		if (!missed.isEmpty()) {
+			System.err.println("Missing POMs: " + missingPOMs);
+			for (final String gav : missed) {
+				final String error = missingPOMs.getError(gav);
+				System.err.println("\t" + gav + (error == null ? "" : ": " + error));
+			}
+		}
 
-	private static String arg(final String var, final boolean required) {
+		final POMCache pomCache = POMCache.shared();
+		metrics.cache("pomCache", pomCache.getHits(), pomCache.getMisses());
+		metrics.cache("releaseDates", releaseDates.getHits(), releaseDates
+			.getMisses());
+		// NB: Files which needed no transfer count as hits.
+		long remoteHits = 0, remoteMisses = 0;
+		for (final RemoteRepository remote : remotes) {
+			remoteHits += remote.getCachedCount() + remote.getNotModifiedCount();
+			remoteMisses += remote.getRequestCount() - remote.getNotModifiedCount();
+		}
+		metrics.cache("remoteRepository", remoteHits, remoteMisses);
+		if (metadataStore != null) {
+			metrics.cache("metadataStore", metadataStore.getHits(), metadataStore
+				.getMisses());
+		}
+		if (reportFile != null) metrics.save(reportFile);
+		if (summary) metrics.printSummary(System.err);
+	}
+
+	private String arg(final String var, final boolean required) {
 		final String value = property(var);
 		if (required && value == null) {
 			throw new RuntimeException("The property " + var +
@@ -96,7 +354,28 @@ public class Info {
 		return value;
 	}
 
-	private static String property(String var) {
+	private boolean flag(final String var) {
+		return BatchJob.flag(var, arg(var, false));
+	}
+
+	private Integer integer(final String var) {
+		final String value = arg(var, false);
+		return value == null ? null : Integer.valueOf(value);
+	}
+
+	private File file(final String var) {
+		final String path = arg(var, false);
+		return path == null ? null : new File(path);
+	}
+
+	/** Gets the given option: a system property, or else from the job. */
+	private String property(final String var) {
+		final String value = systemProperty(var);
+		return value != null || job == null ? value : job.getOption(var);
+	}
+
+	/** Gets the given system property, unless it is unset or unfiltered. */
+	private static String systemProperty(final String var) {
 		final String value = System.getProperty(var);
 		return value == null || value.equals("${" + var + "}") ? null : value;
 	}
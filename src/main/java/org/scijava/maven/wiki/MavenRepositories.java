@@ -0,0 +1,106 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.File;
+
+/**
+ * The Maven repositories in which a {@link ComponentIndex} seeks POMs: first a
+ * local repository, then remote ones.
+ * <p>
+ * The same coordinates may resolve to different POMs in different
+ * repositories, so POMs are cached under a {@link #cacheKey key} which
+ * includes the repositories they were sought in.
+ * </p>
+ */
+public class MavenRepositories {
+
+	/** The local Maven repository of the current user. */
+	public static final File DEFAULT_LOCAL = new File(System.getProperty(
+		"user.home"), ".m2/repository");
+
+	private final File local;
+
+	private final RepositoryMirrors remote;
+
+	/** Identifies the repositories, as the prefix of each cache key. */
+	private final String id;
+
+	/**
+	 * Seeks POMs in the {@link #DEFAULT_LOCAL default local repository}, then in
+	 * the SciJava public repository.
+	 */
+	public MavenRepositories() {
+		this(DEFAULT_LOCAL);
+	}
+
+	/** Seeks POMs in the given local repository, then in the SciJava one. */
+	public MavenRepositories(final File local) {
+		this(local, new RepositoryMirrors(new RemoteRepository(
+			RemoteRepository.DEFAULT_URL)));
+	}
+
+	/** Seeks POMs in the given local repository, then in the remote ones. */
+	public MavenRepositories(final File local, final RepositoryMirrors remote) {
+		if (local == null) throw new NullPointerException("Null local repository");
+		if (remote == null) {
+			throw new NullPointerException("Null remote repositories");
+		}
+		this.local = local;
+		this.remote = remote;
+		final StringBuilder sb = new StringBuilder(local.getAbsolutePath());
+		for (final RemoteRepository repository : remote.getRepositories()) {
+			sb.append('|').append(repository.getURL());
+		}
+		id = sb.toString();
+	}
+
+	// -- MavenRepositories methods --
+
+	/** Gets the local Maven repository, in which POMs are sought first. */
+	public File getLocal() {
+		return local;
+	}
+
+	/** Gets the remote Maven repositories, in which POMs are sought last. */
+	public RepositoryMirrors getRemote() {
+		return remote;
+	}
+
+	/**
+	 * Gets the key under which the POM with the given {@code G:A:V}, as found in
+	 * these repositories, is {@link POMCache cached}.
+	 */
+	public String cacheKey(final String gav) {
+		return id + "|" + gav;
+	}
+
+	// -- Object methods --
+
+	@Override
+	public String toString() {
+		return id;
+	}
+
+}
@@ -0,0 +1,302 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.scijava.util.XML;
+import org.w3c.dom.Element;
+import org.xml.sax.SAXException;
+
+/**
+ * A minimal, read-only client for the
+ * <a href="https://www.mediawiki.org/wiki/API:Main_page">MediaWiki action
+ * API</a>, used to inspect the current content of pages before editing them.
+ */
+public class MediaWikiAPI {
+
+	/** Delay before retrying a throttled request, if the wiki suggests none. */
+	public static final long DEFAULT_RETRY_AFTER = 5000;
+
+	private final URL apiURL;
+
+	private long requestCount;
+
+	/** Maximum database replication lag the wiki should tolerate, or 0. */
+	private int maxLag;
+
+	/** Maximum number of times to retry a throttled request. */
+	private int maxRetries = 3;
+
+	/**
+	 * Creates a client for the wiki at the given base URL (e.g.,
+	 * {@code https://imagej.net/}), whose API lives at {@code api.php} below it.
+	 */
+	public MediaWikiAPI(final URL url) throws IOException {
+		final String path = url.getPath();
+		final String base = path.endsWith("/") ? path : path + "/";
+		// NB: Do not send any user info from the URL along with API requests.
+		apiURL = new URL(url.getProtocol(), url.getHost(), url.getPort(), base +
+			"api.php");
+	}
+
+	// -- MediaWikiAPI methods --
+
+	public URL getURL() {
+		return apiURL;
+	}
+
+	/**
+	 * Gets the latest revision of the given page.
+	 * 
+	 * @return The revision, or null if the page does not exist.
+	 */
+	public Revision getRevision(final String title) throws IOException {
+		return getRevisions(Collections.singletonList(title), true, 1).get(title);
+	}
+
+	/**
+	 * Gets the ID of the latest revision of the given page, without its content.
+	 * 
+	 * @return The revision ID, or -1 if the page does not exist.
+	 */
+	public long getRevisionId(final String title) throws IOException {
+		final Revision revision = //
+			getRevisions(Collections.singletonList(title), false, 1).get(title);
+		return revision == null ? -1 : revision.getId();
+	}
+
+	/**
+	 * Gets the latest revisions of the given pages, querying up to
+	 * {@code batchSize} pages per request.
+	 * 
+	 * @param content Whether to include the text of each revision. If false,
+	 *          only the revision IDs are fetched, and {@link Revision#getText()}
+	 *          is null.
+	 * @return A map from each given title to its latest revision, or to null if
+	 *         the page does not exist. Titles for which the wiki did not return
+	 *         a revision (e.g., because the response would have been too large)
+	 *         are absent from the map.
+	 */
+	public Map<String, Revision> getRevisions(final List<String> titles,
+		final boolean content, final int batchSize) throws IOException
+	{
+		final String rvprop = content ? encode("ids|content") + "&rvslots=main" //
+			: "ids";
+		final Map<String, Revision> revisions = new HashMap<>();
+		for (int i = 0; i < titles.size(); i += batchSize) {
+			final List<String> batch = //
+				titles.subList(i, Math.min(i + batchSize, titles.size()));
+			final XML xml = query("action=query&prop=revisions&rvprop=" + rvprop +
+				"&titles=" + encode(String.join("|", batch)));
+
+			// NB: The wiki may normalize titles; map them back to the ones we asked.
+			final Map<String, String> asked = new HashMap<>();
+			for (final Element n : xml.elements("//query/normalized/n")) {
+				asked.put(n.getAttribute("to"), n.getAttribute("from"));
+			}
+			for (final Element page : xml.elements("//query/pages/page")) {
+				final String title = page.getAttribute("title");
+				final String key = asked.containsKey(title) ? asked.get(title) : title;
+				if (page.hasAttribute("missing")) revisions.put(key, null);
+				else {
+					final Revision revision = revision(page, content);
+					if (revision != null) revisions.put(key, revision);
+				}
+			}
+		}
+		return revisions;
+	}
+
+	public int getMaxLag() {
+		return maxLag;
+	}
+
+	/**
+	 * Sets the {@code maxlag} parameter sent with each request: the wiki refuses
+	 * requests while its database replication lag exceeds this many seconds, so
+	 * that bots back off when it is busy. Zero means no {@code maxlag} is sent.
+	 */
+	public void setMaxLag(final int maxLag) {
+		this.maxLag = maxLag;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * Sets how many times to retry a request refused due to {@code maxlag} or
+	 * with a {@code Retry-After} header, waiting as long as the wiki asks.
+	 */
+	public void setMaxRetries(final int maxRetries) {
+		this.maxRetries = maxRetries;
+	}
+
+	/** Gets the number of API requests made so far. */
+	public synchronized long getRequestCount() {
+		return requestCount;
+	}
+
+	// -- Helper methods --
+
+	/** Gets the latest revision of the given {@code <page>}, or null if none. */
+	private Revision revision(final Element page, final boolean content) {
+		final Element rev = first(XML.elements(page, "rev"));
+		if (rev == null) return null;
+		final long id = Long.parseLong(rev.getAttribute("revid"));
+		if (!content) return new Revision(page.getAttribute("title"), id, null);
+		// NB: Since MediaWiki 1.32, the content lives in a <slot> of the <rev>.
+		final Element slot = first(XML.elements(rev, "slot"));
+		final String text = (slot == null ? rev : slot).getTextContent();
+		return new Revision(page.getAttribute("title"), id, text);
+	}
+
+	private Element first(final List<Element> elements) {
+		return elements.isEmpty() ? null : elements.get(0);
+	}
+
+	/** Performs the given query, retrying as asked if the wiki is throttled. */
+	private XML query(final String params) throws IOException {
+		for (int attempt = 0;; attempt++) {
+			try {
+				return queryOnce(params);
+			}
+			catch (final ThrottledException exc) {
+				if (attempt >= maxRetries) throw exc;
+				sleep(exc.getRetryAfter());
+			}
+		}
+	}
+
+	private XML queryOnce(final String params) throws IOException {
+		final String lag = maxLag > 0 ? "&maxlag=" + maxLag : "";
+		final URL url = new URL(apiURL + "?format=xml" + lag + "&" + params);
+		synchronized (this) {
+			requestCount++;
+		}
+		final Metrics metrics = Metrics.shared();
+		final HttpURLConnection conn = (HttpURLConnection) url.openConnection();
+		conn.setRequestProperty("User-Agent", "mediawiki-maven-info");
+		final int code;
+		// NB: Time to the response; reading its body is timed separately.
+		try (final Metrics.Stopwatch sw = metrics.start("wiki.query")) {
+			code = conn.getResponseCode();
+		}
+		if (code == 429 || code == HttpURLConnection.HTTP_UNAVAILABLE) {
+			throw new ThrottledException("HTTP " + code + " from " + url, //
+				retryAfter(conn));
+		}
+		if (code != HttpURLConnection.HTTP_OK) {
+			throw new IOException("HTTP " + code + " from " + url);
+		}
+		try (final InputStream in = metrics.count("wiki.query.bytes", conn
+			.getInputStream()))
+		{
+			final XML xml;
+			try (final Metrics.Stopwatch read = metrics.start("wiki.query.read")) {
+				xml = new XML(in);
+			}
+			final Element error = first(xml.elements("//error"));
+			if (error != null) {
+				final String errorCode = error.getAttribute("code");
+				final String message = "API error '" + errorCode + "' from " + url;
+				if ("maxlag".equals(errorCode)) {
+					throw new ThrottledException(message, retryAfter(conn));
+				}
+				throw new IOException(message);
+			}
+			return xml;
+		}
+		catch (final ParserConfigurationException | SAXException exc) {
+			throw new IOException("Invalid API response from " + url, exc);
+		}
+	}
+
+	/** Gets the delay requested by the wiki via {@code Retry-After}, in ms. */
+	static long retryAfter(final HttpURLConnection conn) {
+		final String retryAfter = conn.getHeaderField("Retry-After");
+		try {
+			if (retryAfter != null) return 1000 * Long.parseLong(retryAfter.trim());
+		}
+		catch (final NumberFormatException exc) {
+			// NB: Probably an HTTP date; fall back to the default delay.
+		}
+		return DEFAULT_RETRY_AFTER;
+	}
+
+	private void sleep(final long millis) throws InterruptedIOException {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while throttled");
+		}
+	}
+
+	private String encode(final String s) throws IOException {
+		return URLEncoder.encode(s, "UTF-8");
+	}
+
+	// -- Helper classes --
+
+	/** A revision of a wiki page. */
+	public static class Revision {
+
+		private final String title;
+		private final long id;
+		private final String text;
+
+		public Revision(final String title, final long id, final String text) {
+			this.title = title;
+			this.id = id;
+			this.text = text;
+		}
+
+		public String getTitle() {
+			return title;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public String getText() {
+			return text;
+		}
+	}
+
+}
@@ -0,0 +1,293 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.scijava.maven.wiki.ComponentMetadata.License;
+import org.scijava.maven.wiki.ComponentMetadata.Person;
+
+/**
+ * A persistent, on-disk store of {@link ComponentMetadata}, so that repeated
+ * runs do not need to parse the same POMs and manifests again.
+ * <p>
+ * Each entry is a properties file at {@code <dir>/<G>/<A>/<V>.properties},
+ * tagged with a <em>validator</em> describing the POM it was extracted from.
+ * Release versions never change, so their entries are always valid. For
+ * {@code SNAPSHOT} versions, the validator is the size and modification time of
+ * the local file the POM was read from; entries whose validator no longer
+ * matches are ignored and replaced. Snapshot POMs read from remote URLs are
+ * never stored, since there is nothing to validate them against.
+ * </p>
+ * <p>
+ * Release dates are not stored here: {@link ReleaseDates} owns them, so that a
+ * date which was unknown when an entry was written (e.g., because the JAR had
+ * not been downloaded yet) is found by a later run.
+ * </p>
+ */
+public class MetadataStore {
+
+	private static final String RELEASE = "release";
+
+	/**
+	 * Version of the entry format, bumped whenever the meaning of the stored
+	 * metadata changes, so that older entries are discarded.
+	 */
+	private static final String FORMAT = "3";
+
+	private final File dir;
+
+	private long hits, misses, writes;
+
+	public MetadataStore(final File dir) {
+		this.dir = dir;
+	}
+
+	// -- MetadataStore methods --
+
+	public File getDirectory() {
+		return dir;
+	}
+
+	/**
+	 * Gets the validator for metadata extracted from the given POM, or null if
+	 * its metadata cannot safely be stored.
+	 */
+	public String validator(final POMSummary pom) {
+		final String v = pom.getVersion();
+		if (v != null && !v.endsWith("-SNAPSHOT")) return RELEASE;
+		final File source = sourceFile(pom.getPath());
+		if (source == null || !source.isFile()) return null;
+		return source.length() + "@" + source.lastModified();
+	}
+
+	/**
+	 * Loads the stored metadata for the given {@code G:A:V}.
+	 * 
+	 * @return The stored metadata, or null if there is no entry or its
+	 *         validator does not match the given one.
+	 */
+	public ComponentMetadata load(final String g, final String a,
+		final String v, final String validator)
+	{
+		if (validator == null) return null;
+		final File file = file(g, a, v);
+		if (!file.isFile()) return miss();
+		final Properties p = new Properties();
+		try (final InputStream in = new FileInputStream(file)) {
+			p.load(in);
+		}
+		catch (final IOException exc) {
+			System.err.println("Cannot read cached metadata: " + file);
+			return miss();
+		}
+		if (!FORMAT.equals(p.getProperty("format"))) return miss();
+		if (!validator.equals(p.getProperty("validator"))) return miss();
+		synchronized (this) {
+			hits++;
+		}
+		return decode(p);
+	}
+
+	/** Persists the given metadata, tagged with the given validator. */
+	public void save(final ComponentMetadata meta, final String validator) {
+		if (validator == null) return;
+		final File file = file(meta.getGroupId(), meta.getArtifactId(), meta
+			.getVersion());
+		final Properties p = encode(meta);
+		p.setProperty("format", FORMAT);
+		p.setProperty("validator", validator);
+		try {
+			file.getParentFile().mkdirs();
+			final File tmp = File.createTempFile(file.getName(), ".tmp", file
+				.getParentFile());
+			try (final OutputStream out = new FileOutputStream(tmp)) {
+				p.store(out, meta.getGAV());
+			}
+			Files.move(tmp.toPath(), file.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+			synchronized (this) {
+				writes++;
+			}
+		}
+		catch (final IOException exc) {
+			System.err.println("Cannot write cached metadata: " + file);
+		}
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getWrites() {
+		return writes;
+	}
+
+	// -- Object methods --
+
+	@Override
+	public synchronized String toString() {
+		return dir + ": hits=" + hits + ", misses=" + misses + ", writes=" +
+			writes;
+	}
+
+	// -- Helper methods --
+
+	private synchronized ComponentMetadata miss() {
+		misses++;
+		return null;
+	}
+
+	private File file(final String g, final String a, final String v) {
+		return new File(dir, g + File.separator + a + File.separator + v +
+			".properties");
+	}
+
+	/** Gets the local file (or JAR file) from which a POM was read. */
+	private File sourceFile(final String path) {
+		if (path == null) return null;
+		String p = path;
+		if (p.startsWith("file:")) p = p.substring(5);
+		final int bang = p.indexOf("!/");
+		if (bang >= 0) p = p.substring(0, bang);
+		return new File(p);
+	}
+
+	private Properties encode(final ComponentMetadata meta) {
+		final Properties p = new Properties();
+		put(p, "groupId", meta.getGroupId());
+		put(p, "artifactId", meta.getArtifactId());
+		put(p, "version", meta.getVersion());
+		put(p, "name", meta.getName());
+		put(p, "description", meta.getDescription());
+		put(p, "url", meta.getURL());
+		put(p, "scm.url", meta.getSCMURL());
+		put(p, "scm.tag", meta.getSCMTag());
+
+		final List<License> licenses = meta.getLicenses();
+		put(p, "license.count", "" + licenses.size());
+		for (int i = 0; i < licenses.size(); i++) {
+			put(p, "license." + i + ".name", licenses.get(i).getName());
+			put(p, "license." + i + ".url", licenses.get(i).getURL());
+		}
+		encodePeople(p, "developer", meta.getDevelopers());
+		encodePeople(p, "contributor", meta.getContributors());
+
+		for (final Map.Entry<String, String> e : meta.getProperties().entrySet()) {
+			put(p, "property." + e.getKey(), e.getValue());
+		}
+		return p;
+	}
+
+	private void encodePeople(final Properties p, final String prefix,
+		final List<Person> people)
+	{
+		put(p, prefix + ".count", "" + people.size());
+		for (int i = 0; i < people.size(); i++) {
+			final Person person = people.get(i);
+			final String key = prefix + "." + i;
+			put(p, key + ".id", person.getId());
+			put(p, key + ".name", person.getName());
+			put(p, key + ".url", person.getURL());
+			final List<String> roles = person.getRoles();
+			put(p, key + ".role.count", "" + roles.size());
+			for (int r = 0; r < roles.size(); r++) {
+				put(p, key + ".role." + r, roles.get(r));
+			}
+		}
+	}
+
+	private ComponentMetadata decode(final Properties p) {
+		final ComponentMetadata.Builder meta = new ComponentMetadata.Builder();
+		meta.coordinates(p.getProperty("groupId"), p.getProperty("artifactId"),
+			p.getProperty("version"));
+		meta.name(p.getProperty("name"));
+		meta.description(p.getProperty("description"));
+		meta.url(p.getProperty("url"));
+		meta.scm(p.getProperty("scm.url"), p.getProperty("scm.tag"));
+
+		final int licenseCount = count(p, "license.count");
+		for (int i = 0; i < licenseCount; i++) {
+			meta.license(new License(p.getProperty("license." + i + ".name"), //
+				p.getProperty("license." + i + ".url")));
+		}
+		for (final Person person : decodePeople(p, "developer")) {
+			meta.developer(person);
+		}
+		for (final Person person : decodePeople(p, "contributor")) {
+			meta.contributor(person);
+		}
+
+		for (final String key : p.stringPropertyNames()) {
+			if (!key.startsWith("property.")) continue;
+			meta.property(key.substring(9), p.getProperty(key));
+		}
+		return meta.build();
+	}
+
+	private List<Person> decodePeople(final Properties p, final String prefix) {
+		final List<Person> people = new ArrayList<>();
+		final int count = count(p, prefix + ".count");
+		for (int i = 0; i < count; i++) {
+			final String key = prefix + "." + i;
+			final List<String> roles = new ArrayList<>();
+			final int roleCount = count(p, key + ".role.count");
+			for (int r = 0; r < roleCount; r++) {
+				roles.add(p.getProperty(key + ".role." + r));
+			}
+			people.add(new Person(p.getProperty(key + ".id"), //
+				p.getProperty(key + ".name"), p.getProperty(key + ".url"), roles));
+		}
+		return people;
+	}
+
+	private int count(final Properties p, final String key) {
+		try {
+			return Integer.parseInt(p.getProperty(key));
+		}
+		catch (final NumberFormatException exc) {
+			return 0;
+		}
+	}
+
+	private void put(final Properties p, final String key, final String value) {
+		if (value != null) p.setProperty(key, value);
+	}
+
+}
@@ -0,0 +1,394 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe instrumentation of a run: how long each phase and each request
+ * took, how many bytes were transferred, and how well the caches did.
+ * <p>
+ * There are three kinds of measurement, each identified by a dotted name:
+ * </p>
+ * <ul>
+ * <li>Timers, such as {@code phase.index} or {@code pom.remote}, record the
+ * wall time of each occurrence of an operation, in a histogram of
+ * power-of-two buckets from which percentiles are estimated.</li>
+ * <li>Counters, such as {@code pom.remote.bytes}, accumulate totals.</li>
+ * <li>Caches record their latest hit and miss counts.</li>
+ * </ul>
+ * <p>
+ * At the end of a run, the measurements can be {@link #save(File) written} as
+ * a JSON report, and {@link #printSummary summarized} as a table. All classes
+ * of the analyzer record into the {@link #shared()} instance.
+ * </p>
+ */
+public class Metrics {
+
+	private static final Metrics SHARED = new Metrics();
+
+	/**
+	 * Number of histogram buckets. Bucket {@code i} counts durations below
+	 * {@code 2^i} microseconds (and at least half that); the last one counts
+	 * all longer durations, from about 9 minutes.
+	 */
+	private static final int BUCKETS = 31;
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+	private final Map<String, long[]> caches = new ConcurrentHashMap<>();
+
+	private volatile long started = System.currentTimeMillis();
+
+	/** Gets the instance shared by all classes of the analyzer. */
+	public static Metrics shared() {
+		return SHARED;
+	}
+
+	// -- Metrics methods --
+
+	/**
+	 * Starts timing an occurrence of the given operation. Close the returned
+	 * stopwatch, typically via try-with-resources, to record it.
+	 */
+	public Stopwatch start(final String timer) {
+		return new Stopwatch(timer(timer));
+	}
+
+	/** Records an occurrence of the given operation, which took {@code nanos}. */
+	public void record(final String timer, final long nanos) {
+		timer(timer).record(nanos);
+	}
+
+	/** Adds the given amount to the given counter. */
+	public void count(final String counter, final long delta) {
+		counters.computeIfAbsent(counter, c -> new LongAdder()).add(delta);
+	}
+
+	/** Records the current hit and miss counts of the given cache. */
+	public void cache(final String cache, final long hits, final long misses) {
+		caches.put(cache, new long[] { hits, misses });
+	}
+
+	/**
+	 * Wraps the given stream so that the bytes read from it are added to the
+	 * given counter.
+	 */
+	public CountingInputStream count(final String counter,
+		final InputStream in)
+	{
+		return new CountingInputStream(in, counters.computeIfAbsent(counter,
+			c -> new LongAdder()));
+	}
+
+	/** Gets the number of recorded occurrences of the given operation. */
+	public long getCount(final String timer) {
+		final Timer t = timers.get(timer);
+		return t == null ? 0 : t.snapshot()[0];
+	}
+
+	/** Gets the total recorded time of the given operation, in ns. */
+	public long getTotal(final String timer) {
+		final Timer t = timers.get(timer);
+		return t == null ? 0 : t.snapshot()[1];
+	}
+
+	/** Gets the value of the given counter. */
+	public long getCounter(final String counter) {
+		final LongAdder adder = counters.get(counter);
+		return adder == null ? 0 : adder.sum();
+	}
+
+	/** Discards all measurements, and restarts the clock of the run. */
+	public void clear() {
+		timers.clear();
+		counters.clear();
+		caches.clear();
+		started = System.currentTimeMillis();
+	}
+
+	/** Writes the measurements as JSON. */
+	public void writeJSON(final Appendable out) throws IOException {
+		final long now = System.currentTimeMillis();
+		out.append("{\n");
+		out.append("  \"started\": ").append("" + started).append(",\n");
+		out.append("  \"elapsedMs\": ").append("" + (now - started)).append(
+			",\n");
+
+		out.append("  \"timers\": {");
+		String sep = "\n";
+		for (final Map.Entry<String, Timer> e : new TreeMap<>(timers).entrySet()) {
+			final long[] s = e.getValue().snapshot();
+			out.append(sep).append("    ").append(quote(e.getKey())).append(": {");
+			out.append("\"count\": ").append("" + s[0]);
+			out.append(", \"totalMs\": ").append(ms(s[1]));
+			out.append(", \"minMs\": ").append(ms(s[0] == 0 ? 0 : s[2]));
+			out.append(", \"maxMs\": ").append(ms(s[3]));
+			out.append(", \"meanMs\": ").append(ms(s[0] == 0 ? 0 : s[1] / s[0]));
+			out.append(", \"p50Ms\": ").append(ms(percentile(s, 0.50)));
+			out.append(", \"p90Ms\": ").append(ms(percentile(s, 0.90)));
+			out.append(", \"p99Ms\": ").append(ms(percentile(s, 0.99)));
+			// NB: Buckets by upper bound in microseconds; empty ones are left out.
+			out.append(", \"histogramUs\": {");
+			String bucketSep = "";
+			for (int i = 0; i < BUCKETS; i++) {
+				final long n = s[4 + i];
+				if (n == 0) continue;
+				out.append(bucketSep).append(quote(i == BUCKETS - 1 ? "inf" : "" +
+					(1L << i))).append(": ").append("" + n);
+				bucketSep = ", ";
+			}
+			out.append("}}");
+			sep = ",\n";
+		}
+		out.append(sep.equals("\n") ? "},\n" : "\n  },\n");
+
+		out.append("  \"counters\": {");
+		sep = "\n";
+		for (final Map.Entry<String, LongAdder> e : new TreeMap<>(counters)
+			.entrySet())
+		{
+			out.append(sep).append("    ").append(quote(e.getKey())).append(": ");
+			out.append("" + e.getValue().sum());
+			sep = ",\n";
+		}
+		out.append(sep.equals("\n") ? "},\n" : "\n  },\n");
+
+		out.append("  \"caches\": {");
+		sep = "\n";
+		for (final Map.Entry<String, long[]> e : new TreeMap<>(caches)
+			.entrySet())
+		{
+			final long hits = e.getValue()[0], misses = e.getValue()[1];
+			out.append(sep).append("    ").append(quote(e.getKey())).append(": {");
+			out.append("\"hits\": ").append("" + hits);
+			out.append(", \"misses\": ").append("" + misses);
+			out.append(", \"hitRate\": ").append(String.format("%.4f",
+				hitRate(hits, misses)));
+			out.append("}");
+			sep = ",\n";
+		}
+		out.append(sep.equals("\n") ? "}\n" : "\n  }\n");
+		out.append("}\n");
+	}
+
+	/** Writes the measurements to the given file, as JSON. */
+	public void save(final File file) throws IOException {
+		final File dir = file.getAbsoluteFile().getParentFile();
+		dir.mkdirs();
+		final File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+		try (final Writer out = Files.newBufferedWriter(tmp.toPath())) {
+			writeJSON(out);
+		}
+		Files.move(tmp.toPath(), file.toPath(),
+			StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/** Prints a table summarizing the measurements. */
+	public void printSummary(final Appendable out) throws IOException {
+		out.append(String.format("%-28s %8s %10s %9s %9s %9s %9s%n", "timer",
+			"count", "total ms", "mean ms", "p50 ms", "p99 ms", "max ms"));
+		for (final Map.Entry<String, Timer> e : new TreeMap<>(timers).entrySet()) {
+			final long[] s = e.getValue().snapshot();
+			out.append(String.format("%-28s %8d %10s %9s %9s %9s %9s%n", e.getKey(),
+				s[0], ms(s[1]), ms(s[0] == 0 ? 0 : s[1] / s[0]), ms(percentile(s,
+					0.50)), ms(percentile(s, 0.99)), ms(s[3])));
+		}
+		for (final Map.Entry<String, LongAdder> e : new TreeMap<>(counters)
+			.entrySet())
+		{
+			out.append(String.format("%-28s %8d%n", e.getKey(), e.getValue()
+				.sum()));
+		}
+		for (final Map.Entry<String, long[]> e : new TreeMap<>(caches)
+			.entrySet())
+		{
+			final long hits = e.getValue()[0], misses = e.getValue()[1];
+			out.append(String.format("%-28s %8d hits, %d misses (%.1f%%)%n", e
+				.getKey(), hits, misses, 100 * hitRate(hits, misses)));
+		}
+	}
+
+	// -- Object methods --
+
+	@Override
+	public String toString() {
+		return timers.size() + " timers, " + counters.size() + " counters, " +
+			caches.size() + " caches";
+	}
+
+	// -- Helper methods --
+
+	private Timer timer(final String name) {
+		return timers.computeIfAbsent(name, n -> new Timer());
+	}
+
+	/**
+	 * Estimates the given percentile of a timer's durations, as the upper bound
+	 * of the bucket in which it falls, but no more than the maximum.
+	 */
+	private static long percentile(final long[] snapshot, final double p) {
+		final long count = snapshot[0];
+		if (count == 0) return 0;
+		final long rank = (long) Math.ceil(p * count);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[4 + i];
+			if (seen >= rank) {
+				if (i == BUCKETS - 1) break;
+				return Math.min(snapshot[3], (1L << i) * 1000);
+			}
+		}
+		return snapshot[3];
+	}
+
+	private static double hitRate(final long hits, final long misses) {
+		return hits + misses == 0 ? 0 : (double) hits / (hits + misses);
+	}
+
+	private static String ms(final long nanos) {
+		return String.format("%.3f", nanos / 1e6);
+	}
+
+	private static String quote(final String s) {
+		final StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < s.length(); i++) {
+			final char c = s.charAt(i);
+			if (c == '"' || c == '\\') sb.append('\\').append(c);
+			else if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+			else sb.append(c);
+		}
+		return sb.append('"').toString();
+	}
+
+	// -- Helper classes --
+
+	/** The durations of one operation. */
+	private static class Timer {
+
+		private long count, total, min = Long.MAX_VALUE, max;
+		private final long[] buckets = new long[BUCKETS];
+
+		public synchronized void record(final long nanos) {
+			count++;
+			total += nanos;
+			min = Math.min(min, nanos);
+			max = Math.max(max, nanos);
+			final long micros = Math.max(0, nanos / 1000);
+			buckets[Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(
+				micros))]++;
+		}
+
+		/** Gets count, total, min, max, then the buckets. */
+		public synchronized long[] snapshot() {
+			final long[] s = new long[4 + BUCKETS];
+			s[0] = count;
+			s[1] = total;
+			s[2] = min;
+			s[3] = max;
+			System.arraycopy(buckets, 0, s, 4, BUCKETS);
+			return s;
+		}
+	}
+
+	/** A stream which counts the bytes read from it. */
+	public static class CountingInputStream extends FilterInputStream {
+
+		private final LongAdder counter;
+		private long count;
+
+		private CountingInputStream(final InputStream in,
+			final LongAdder counter)
+		{
+			super(in);
+			this.counter = counter;
+		}
+
+		/** Gets the number of bytes read from this stream so far. */
+		public long getCount() {
+			return count;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int b = super.read();
+			if (b >= 0) add(1);
+			return b;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len)
+			throws IOException
+		{
+			final int n = super.read(b, off, len);
+			if (n > 0) add(n);
+			return n;
+		}
+
+		@Override
+		public long skip(final long n) throws IOException {
+			final long skipped = super.skip(n);
+			add(skipped);
+			return skipped;
+		}
+
+		private void add(final long n) {
+			count += n;
+			counter.add(n);
+		}
+	}
+
+	/** Times one occurrence of an operation, until closed. */
+	public static class Stopwatch implements AutoCloseable {
+
+		private final Timer timer;
+		private final long start = System.nanoTime();
+		private boolean closed;
+
+		private Stopwatch(final Timer timer) {
+			this.timer = timer;
+		}
+
+		/** Records the time elapsed since the stopwatch was started. */
+		@Override
+		public void close() {
+			if (closed) return;
+			closed = true;
+			timer.record(System.nanoTime() - start);
+		}
+	}
+
+}
@@ -0,0 +1,215 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A thread-safe negative cache of POMs which do not exist, keyed by
+ * {@code G:A:V}.
+ * <p>
+ * When no remote repository has a POM, the miss is recorded, so that the
+ * parents and dependencies which refer to it fail fast, rather than asking the
+ * remote repositories again and again. Misses expire after a
+ * {@link #setTTL time to live}, since a POM may yet be deployed. They can be
+ * {@link #save(File) saved} to a properties file and {@link #load(File)
+ * loaded} by later runs. All {@link ComponentIndex} instances share the
+ * {@link #shared()} cache.
+ * </p>
+ * <p>
+ * Each POM found missing during a run is listed once by
+ * {@link #getMissedGAVs()}, however many components refer to it.
+ * </p>
+ */
+public class MissingPOMs {
+
+	/** Default time after which a miss expires: one day, in ms. */
+	public static final long DEFAULT_TTL = TimeUnit.DAYS.toMillis(1);
+
+	private static final MissingPOMs SHARED = new MissingPOMs();
+
+	/** Time of each recorded miss, in ms since the epoch. */
+	private final Map<String, Long> misses = new ConcurrentHashMap<>();
+
+	/** POMs found missing during this run. */
+	private final Set<String> missed = ConcurrentHashMap.newKeySet();
+
+	/** Error reading each POM which exists but could not be read this run. */
+	private final Map<String, String> errors = new ConcurrentHashMap<>();
+
+	private volatile long ttl = DEFAULT_TTL;
+
+	private long hits;
+
+	/** Gets the cache shared by all component indices. */
+	public static MissingPOMs shared() {
+		return SHARED;
+	}
+
+	// -- MissingPOMs methods --
+
+	public long getTTL() {
+		return ttl;
+	}
+
+	/** Sets the time after which a recorded miss expires, in ms. */
+	public void setTTL(final long ttl) {
+		if (ttl < 0) throw new IllegalArgumentException("Invalid TTL: " + ttl);
+		this.ttl = ttl;
+	}
+
+	/**
+	 * Checks whether the POM with the given {@code G:A:V} is known not to exist,
+	 * as of a miss which has not yet expired.
+	 */
+	public boolean isMissing(final String gav) {
+		final Long time = misses.get(gav);
+		if (time == null || isExpired(time, System.currentTimeMillis())) {
+			return false;
+		}
+		synchronized (this) {
+			hits++;
+		}
+		missed.add(gav);
+		return true;
+	}
+
+	/** Records that the POM with the given {@code G:A:V} does not exist. */
+	public void add(final String gav) {
+		misses.put(gav, System.currentTimeMillis());
+		missed.add(gav);
+	}
+
+	/**
+	 * Records that the POM with the given {@code G:A:V} could not be read. Unlike
+	 * a miss, the error may be transient, so it is listed for this run only and
+	 * never saved.
+	 */
+	public void addUnreadable(final String gav, final IOException error) {
+		errors.put(gav, String.valueOf(error));
+		missed.add(gav);
+	}
+
+	/**
+	 * Gets the error which kept the POM with the given {@code G:A:V} from being
+	 * read this run, or null if there was none.
+	 */
+	public String getError(final String gav) {
+		return errors.get(gav);
+	}
+
+	/**
+	 * Gets the {@code G:A:V} of each POM found missing or unreadable during this
+	 * run, whether newly or as recorded before, sorted.
+	 */
+	public List<String> getMissedGAVs() {
+		final List<String> gavs = new ArrayList<>(missed);
+		Collections.sort(gavs);
+		return gavs;
+	}
+
+	/** Adds the unexpired misses from the given file, if it exists. */
+	public void load(final File file) throws IOException {
+		if (!file.exists()) return;
+		final Properties p = new Properties();
+		try (final InputStream in = new FileInputStream(file)) {
+			p.load(in);
+		}
+		final long now = System.currentTimeMillis();
+		for (final String gav : p.stringPropertyNames()) {
+			try {
+				final long time = Long.parseLong(p.getProperty(gav));
+				if (!isExpired(time, now)) misses.putIfAbsent(gav, time);
+			}
+			catch (final NumberFormatException exc) {
+				// NB: Skip invalid entries.
+			}
+		}
+	}
+
+	/** Writes the unexpired misses to the given file. */
+	public void save(final File file) throws IOException {
+		final Properties p = new Properties();
+		final long now = System.currentTimeMillis();
+		for (final Map.Entry<String, Long> e : misses.entrySet()) {
+			if (isExpired(e.getValue(), now)) continue;
+			p.setProperty(e.getKey(), e.getValue().toString());
+		}
+		final File dir = file.getAbsoluteFile().getParentFile();
+		dir.mkdirs();
+		final File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+		try (final OutputStream out = new FileOutputStream(tmp)) {
+			p.store(out, "MediaWiki Maven Info missing POMs");
+		}
+		Files.move(tmp.toPath(), file.toPath(),
+			StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	public int size() {
+		return misses.size();
+	}
+
+	/** Gets the number of lookups which failed fast, due to a recorded miss. */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/** Removes all misses from the cache. */
+	public synchronized void clear() {
+		misses.clear();
+		missed.clear();
+		errors.clear();
+		hits = 0;
+	}
+
+	// -- Object methods --
+
+	@Override
+	public synchronized String toString() {
+		return misses.size() + " known, " + missed.size() + " this run, " + hits +
+			" lookups avoided";
+	}
+
+	// -- Helper methods --
+
+	private boolean isExpired(final long time, final long now) {
+		return now - time >= ttl;
+	}
+
+}
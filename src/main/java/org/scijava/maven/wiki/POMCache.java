@@ -0,0 +1,217 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * A thread-safe, size-bounded cache of {@link POMSummary POM summaries}, keyed
+ * by {@code G:A:V}, qualified by the repositories in which the POMs were
+ * sought; see {@link MavenRepositories#cacheKey}.
+ * <p>
+ * When full, the least recently used POM is evicted. The cache keeps count of
+ * hits, misses and evictions, so that its effectiveness can be reported.
+ * </p>
+ * <p>
+ * POMs requested via {@link #get(String, Loader)} are loaded at most once at a
+ * time: if several threads ask for the same missing POM, one of them loads it
+ * while the others wait for its result.
+ * </p>
+ * <p>
+ * All {@link ComponentIndex} instances share the {@link #shared()} cache, so
+ * that common parent POMs (e.g., {@code pom-scijava}) are fetched and parsed
+ * only once per run, no matter how many projects are indexed.
+ * </p>
+ */
+public class POMCache {
+
+	/** Default maximum number of POMs held by the shared cache. */
+	public static final int DEFAULT_CAPACITY = 2048;
+
+	private static final POMCache SHARED = new POMCache(DEFAULT_CAPACITY);
+
+	private final int capacity;
+
+	private final LinkedHashMap<String, POMSummary> poms;
+
+	/** POMs currently being loaded, by key. */
+	private final HashMap<String, FutureTask<POMSummary>> pending =
+		new HashMap<>();
+
+	private long hits, misses, evictions;
+
+	public POMCache(final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Invalid capacity: " + capacity);
+		}
+		this.capacity = capacity;
+		poms = new LinkedHashMap<String, POMSummary>(16, 0.75f, true) {
+
+			@Override
+			protected boolean removeEldestEntry(
+				final Map.Entry<String, POMSummary> eldest)
+			{
+				if (size() <= POMCache.this.capacity) return false;
+				evictions++;
+				return true;
+			}
+		};
+	}
+
+	// -- POMCache methods --
+
+	/** Gets the cache shared by all {@link ComponentIndex} instances. */
+	public static POMCache shared() {
+		return SHARED;
+	}
+
+	/** Gets the POM with the given key, or null if not cached. */
+	public synchronized POMSummary get(final String key) {
+		final POMSummary pom = poms.get(key);
+		if (pom == null) misses++;
+		else hits++;
+		return pom;
+	}
+
+	/**
+	 * Gets the POM with the given key, loading it with the given loader
+	 * if not cached. Concurrent requests for the same POM share a single load.
+	 */
+	public POMSummary get(final String key, final Loader loader)
+		throws IOException
+	{
+		final FutureTask<POMSummary> task;
+		final boolean owner;
+		synchronized (this) {
+			final POMSummary pom = poms.get(key);
+			if (pom != null) {
+				hits++;
+				return pom;
+			}
+			final FutureTask<POMSummary> existing = pending.get(key);
+			if (existing != null) {
+				// NB: Another thread is already loading this POM.
+				hits++;
+				task = existing;
+				owner = false;
+			}
+			else {
+				misses++;
+				task = new FutureTask<>(loader::load);
+				pending.put(key, task);
+				owner = true;
+			}
+		}
+		if (owner) {
+			task.run();
+			synchronized (this) {
+				try {
+					poms.put(key, task.get());
+				}
+				catch (final ExecutionException | InterruptedException exc) {
+					// NB: Failed loads are not cached; the error is rethrown below.
+				}
+				finally {
+					pending.remove(key);
+				}
+			}
+		}
+		return result(task);
+	}
+
+	/** Adds the given POM to the cache, evicting the eldest entry if full. */
+	public synchronized void put(final String key, final POMSummary pom) {
+		poms.put(key, pom);
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public synchronized int size() {
+		return poms.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/** Discards all cached POMs and resets the counters. */
+	public synchronized void clear() {
+		poms.clear();
+		hits = misses = evictions = 0;
+	}
+
+	// -- Helper methods --
+
+	private POMSummary result(final FutureTask<POMSummary> task)
+		throws IOException
+	{
+		try {
+			return task.get();
+		}
+		catch (final InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while loading POM");
+		}
+		catch (final ExecutionException exc) {
+			final Throwable cause = exc.getCause();
+			if (cause instanceof IOException) throw (IOException) cause;
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+	}
+
+	// -- Object methods --
+
+	@Override
+	public synchronized String toString() {
+		return "size=" + poms.size() + "/" + capacity + ", hits=" + hits +
+			", misses=" + misses + ", evictions=" + evictions;
+	}
+
+	// -- Helper classes --
+
+	/** Loads a POM which is not yet cached. */
+	public interface Loader {
+
+		POMSummary load() throws IOException;
+	}
+
+}
@@ -0,0 +1,622 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+package org.scijava.maven.wiki;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.scijava.maven.wiki.ComponentMetadata.License;
+import org.scijava.maven.wiki.ComponentMetadata.Person;
+import org.scijava.util.FileUtils;
+
+/**
+ * The fields of a single POM which are needed to index and describe its
+ * component, read in one streaming pass.
+ * <p>
+ * Unlike {@link org.scijava.util.POM}, which keeps the whole document in memory
+ * as a DOM tree, a summary retains only these fields; the document itself is
+ * discarded as soon as it has been read. So memory use grows with the number of
+ * components, rather than with the total size of their POMs. Summaries are
+ * immutable, and hence safe to share between threads.
+ * </p>
+ * <p>
+ * Nothing is inherited here: these are the fields exactly as declared in this
+ * one POM, except that the group ID and version default to the parent's, as
+ * Maven does. See {@link ComponentMetadata} for the effective model.
+ * </p>
+ */
+public class POMSummary {
+
+	/** StAX factories, which are not guaranteed to be thread-safe. */
+	private static final ThreadLocal<XMLInputFactory> FACTORY = ThreadLocal
+		.withInitial(POMSummary::createFactory);
+
+	private String path;
+	private String groupId, artifactId, version;
+	private String parentGroupId, parentArtifactId, parentVersion;
+	private String name, description, url;
+	private String scmURL, scmTag;
+
+	private final List<License> licenses = new ArrayList<>();
+	private final List<Person> developers = new ArrayList<>();
+	private final List<Person> contributors = new ArrayList<>();
+	private final Map<String, String> properties = new LinkedHashMap<>();
+	private final List<Dependency> dependencies = new ArrayList<>();
+	private final List<Dependency> managedDependencies = new ArrayList<>();
+
+	private POMSummary() {
+		// NB: Instantiated only by the read methods.
+	}
+
+	// -- Static utility methods --
+
+	/** Reads the summary of the given POM file. */
+	public static POMSummary read(final File file) throws IOException {
+		try (final InputStream in = new FileInputStream(file)) {
+			return read(in, file.getAbsolutePath());
+		}
+	}
+
+	/** Reads the summary of the POM at the given URL. */
+	public static POMSummary read(final URL url) throws IOException {
+		try (final InputStream in = url.openStream()) {
+			return read(in, url.getPath());
+		}
+	}
+
+	/**
+	 * Reads the summary of the POM from the given stream, which is left open.
+	 * 
+	 * @param path The location of the POM, as reported by {@link #getPath()};
+	 *          may be null.
+	 */
+	public static POMSummary read(final InputStream in, final String path)
+		throws IOException
+	{
+		final POMSummary pom = new POMSummary();
+		pom.path = path;
+		try {
+			final XMLStreamReader reader = //
+				FACTORY.get().createXMLStreamReader(new BufferedInputStream(in));
+			try {
+				pom.parse(reader);
+			}
+			finally {
+				reader.close();
+			}
+		}
+		catch (final XMLStreamException exc) {
+			throw new IOException("Invalid POM: " + path, exc);
+		}
+		if (pom.groupId == null) pom.groupId = pom.parentGroupId;
+		if (pom.version == null) pom.version = pom.parentVersion;
+		return pom;
+	}
+
+	/**
+	 * Reads the summaries of all POMs on the context class path, as found in
+	 * {@code META-INF/maven}. POMs which cannot be read are skipped.
+	 * 
+	 * @see org.scijava.util.POM#getAllPOMs()
+	 */
+	public static List<POMSummary> getAllPOMs() {
+		final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+		final Enumeration<URL> roots;
+		try {
+			roots = loader.getResources("META-INF/maven/");
+		}
+		catch (final IOException exc) {
+			return Collections.emptyList();
+		}
+		final List<POMSummary> poms = new ArrayList<>();
+		while (roots.hasMoreElements()) {
+			for (final URL url : FileUtils.listContents(roots.nextElement())) {
+				if (!url.getPath().endsWith("/pom.xml")) continue;
+				try {
+					poms.add(read(url));
+				}
+				catch (final IOException exc) {
+					// NB: Skip unreadable POMs.
+				}
+			}
+		}
+		return poms;
+	}
+
+	// -- POMSummary methods --
+
+	/** Gets the location from which the POM was read, or null if unknown. */
+	public String getPath() {
+		return path;
+	}
+
+	public String getGroupId() {
+		return groupId;
+	}
+
+	public String getArtifactId() {
+		return artifactId;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public String getGAV() {
+		return groupId + ":" + artifactId + ":" + version;
+	}
+
+	public String getParentGroupId() {
+		return parentGroupId;
+	}
+
+	public String getParentArtifactId() {
+		return parentArtifactId;
+	}
+
+	public String getParentVersion() {
+		return parentVersion;
+	}
+
+	public String getProjectName() {
+		return name;
+	}
+
+	public String getProjectDescription() {
+		return description;
+	}
+
+	public String getProjectURL() {
+		return url;
+	}
+
+	public String getSCMURL() {
+		return scmURL;
+	}
+
+	public String getSCMTag() {
+		return scmTag;
+	}
+
+	public List<License> getLicenses() {
+		return Collections.unmodifiableList(licenses);
+	}
+
+	public List<Person> getDevelopers() {
+		return Collections.unmodifiableList(developers);
+	}
+
+	public List<Person> getContributors() {
+		return Collections.unmodifiableList(contributors);
+	}
+
+	public Map<String, String> getProperties() {
+		return Collections.unmodifiableMap(properties);
+	}
+
+	/** Gets the POM's dependencies, not including managed dependencies. */
+	public List<Dependency> getDependencies() {
+		return Collections.unmodifiableList(dependencies);
+	}
+
+	/** Gets the dependencies declared in its {@code <dependencyManagement>}. */
+	public List<Dependency> getManagedDependencies() {
+		return Collections.unmodifiableList(managedDependencies);
+	}
+
+	// -- Object methods --
+
+	@Override
+	public String toString() {
+		return getGAV();
+	}
+
+	// -- Helper methods --
+
+	private static XMLInputFactory createFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+			false);
+		return factory;
+	}
+
+	/** Reads the fields of interest, skipping everything else. */
+	private void parse(final XMLStreamReader r) throws XMLStreamException {
+		if (r.nextTag() != XMLStreamConstants.START_ELEMENT ||
+			!"project".equals(r.getLocalName()))
+		{
+			throw new XMLStreamException("Not a POM", r.getLocation());
+		}
+		while (nextChild(r)) {
+			switch (r.getLocalName()) {
+				case "groupId":
+					groupId = text(r);
+					break;
+				case "artifactId":
+					artifactId = text(r);
+					break;
+				case "version":
+					version = text(r);
+					break;
+				case "name":
+					name = text(r);
+					break;
+				case "description":
+					description = text(r);
+					break;
+				case "url":
+					url = text(r);
+					break;
+				case "parent":
+					parseParent(r);
+					break;
+				case "scm":
+					parseSCM(r);
+					break;
+				case "licenses":
+					while (nextChild(r)) {
+						if ("license".equals(r.getLocalName())) parseLicense(r);
+						else skip(r);
+					}
+					break;
+				case "developers":
+					while (nextChild(r)) {
+						if ("developer".equals(r.getLocalName())) {
+							developers.add(parsePerson(r));
+						}
+						else skip(r);
+					}
+					break;
+				case "contributors":
+					while (nextChild(r)) {
+						if ("contributor".equals(r.getLocalName())) {
+							contributors.add(parsePerson(r));
+						}
+						else skip(r);
+					}
+					break;
+				case "properties":
+					while (nextChild(r)) {
+						final String key = r.getLocalName();
+						final String value = text(r);
+						if (value != null) properties.put(key, value);
+					}
+					break;
+				case "dependencies":
+					parseDependencies(r, dependencies);
+					break;
+				case "dependencyManagement":
+					while (nextChild(r)) {
+						if ("dependencies".equals(r.getLocalName())) {
+							parseDependencies(r, managedDependencies);
+						}
+						else skip(r);
+					}
+					break;
+				default:
+					skip(r);
+			}
+		}
+	}
+
+	private void parseParent(final XMLStreamReader r)
+		throws XMLStreamException
+	{
+		while (nextChild(r)) {
+			switch (r.getLocalName()) {
+				case "groupId":
+					parentGroupId = text(r);
+					break;
+				case "artifactId":
+					parentArtifactId = text(r);
+					break;
+				case "version":
+					parentVersion = text(r);
+					break;
+				default:
+					skip(r);
+			}
+		}
+	}
+
+	private void parseSCM(final XMLStreamReader r) throws XMLStreamException {
+		while (nextChild(r)) {
+			switch (r.getLocalName()) {
+				case "url":
+					scmURL = text(r);
+					break;
+				case "tag":
+					scmTag = text(r);
+					break;
+				default:
+					skip(r);
+			}
+		}
+	}
+
+	private void parseLicense(final XMLStreamReader r)
+		throws XMLStreamException
+	{
+		String licenseName = null, licenseURL = null;
+		while (nextChild(r)) {
+			switch (r.getLocalName()) {
+				case "name":
+					licenseName = text(r);
+					break;
+				case "url":
+					licenseURL = text(r);
+					break;
+				default:
+					skip(r);
+			}
+		}
+		licenses.add(new License(licenseName, licenseURL));
+	}
+
+	/**
+	 * Parses a {@code <developer>} or {@code <contributor>}. The ID of a
+	 * contributor, who has no {@code <id>}, is taken from its
+	 * {@code <properties><id>}, if any.
+	 */
+	private Person parsePerson(final XMLStreamReader r)
+		throws XMLStreamException
+	{
+		String id = null, propertyId = null, personName = null, personURL = null;
+		final List<String> roles = new ArrayList<>();
+		while (nextChild(r)) {
+			switch (r.getLocalName()) {
+				case "id":
+					id = text(r);
+					break;
+				case "name":
+					personName = text(r);
+					break;
+				case "url":
+					personURL = text(r);
+					break;
+				case "roles":
+					while (nextChild(r)) {
+						if (!"role".equals(r.getLocalName())) {
+							skip(r);
+							continue;
+						}
+						final String role = text(r);
+						if (role != null) roles.add(role(role));
+					}
+					break;
+				case "properties":
+					while (nextChild(r)) {
+						if ("id".equals(r.getLocalName())) propertyId = text(r);
+						else skip(r);
+					}
+					break;
+				default:
+					skip(r);
+			}
+		}
+		return new Person(id == null ? propertyId : id, personName, personURL,
+			roles);
+	}
+
+	private void parseDependencies(final XMLStreamReader r,
+		final List<Dependency> list) throws XMLStreamException
+	{
+		while (nextChild(r)) {
+			if ("dependency".equals(r.getLocalName())) list.add(parseDependency(r));
+			else skip(r);
+		}
+	}
+
+	private Dependency parseDependency(final XMLStreamReader r)
+		throws XMLStreamException
+	{
+		String g = null, a = null, v = null, type = null, scope = null,
+				optional = null;
+		while (nextChild(r)) {
+			switch (r.getLocalName()) {
+				case "groupId":
+					g = text(r);
+					break;
+				case "artifactId":
+					a = text(r);
+					break;
+				case "version":
+					v = text(r);
+					break;
+				case "type":
+					type = text(r);
+					break;
+				case "scope":
+					scope = text(r);
+					break;
+				case "optional":
+					optional = text(r);
+					break;
+				default:
+					skip(r);
+			}
+		}
+		return new Dependency(g, a, v, type, scope, "true".equals(optional ==
+			null ? null : optional.trim()));
+	}
+
+	/** Strips any parenthetical remarks from the given role. */
+	private static String role(final String role) {
+		final String value = role.trim();
+		final int paren = value.indexOf('(');
+		return paren < 0 ? value : value.substring(0, paren).trim();
+	}
+
+	/**
+	 * Advances to the next child of the current element.
+	 * 
+	 * @return true if positioned at the child's start tag, or false if
+	 *         positioned at the current element's end tag.
+	 */
+	private static boolean nextChild(final XMLStreamReader r)
+		throws XMLStreamException
+	{
+		while (r.hasNext()) {
+			final int event = r.next();
+			if (event == XMLStreamConstants.START_ELEMENT) return true;
+			if (event == XMLStreamConstants.END_ELEMENT) return false;
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the text directly within the current element, ignoring any nested
+	 * elements, and advances to its end tag.
+	 * 
+	 * @return The text, trimmed, or null if there is none.
+	 */
+	private static String text(final XMLStreamReader r)
+		throws XMLStreamException
+	{
+		final StringBuilder sb = new StringBuilder();
+		int depth = 1;
+		while (depth > 0) {
+			switch (r.next()) {
+				case XMLStreamConstants.START_ELEMENT:
+					depth++;
+					break;
+				case XMLStreamConstants.END_ELEMENT:
+					depth--;
+					break;
+				case XMLStreamConstants.CHARACTERS:
+				case XMLStreamConstants.CDATA:
+				case XMLStreamConstants.SPACE:
+					if (depth == 1) sb.append(r.getText());
+					break;
+			}
+		}
+		final String text = sb.toString().trim();
+		return text.isEmpty() ? null : text;
+	}
+
+	/** Skips the current element, and advances to its end tag. */
+	private static void skip(final XMLStreamReader r)
+		throws XMLStreamException
+	{
+		int depth = 1;
+		while (depth > 0) {
+			final int event = r.next();
+			if (event == XMLStreamConstants.START_ELEMENT) depth++;
+			else if (event == XMLStreamConstants.END_ELEMENT) depth--;
+		}
+	}
+
+	// -- Helper classes --
+
+	/** A dependency, as declared in a POM's {@code <dependencies>} section. */
+	public static class Dependency {
+
+		private final String groupId, artifactId, version, type, scope;
+		private final boolean optional;
+
+		public Dependency(final String groupId, final String artifactId,
+			final String version, final String scope, final boolean optional)
+		{
+			this(groupId, artifactId, version, null, scope, optional);
+		}
+
+		public Dependency(final String groupId, final String artifactId,
+			final String version, final String type, final String scope,
+			final boolean optional)
+		{
+			this.groupId = groupId;
+			this.artifactId = artifactId;
+			this.version = version;
+			this.type = type;
+			this.scope = scope;
+			this.optional = optional;
+		}
+
+		public String getGroupId() {
+			return groupId;
+		}
+
+		public String getArtifactId() {
+			return artifactId;
+		}
+
+		/** Gets the declared version, or null if managed elsewhere. */
+		public String getVersion() {
+			return version;
+		}
+
+		/** Gets the declared type, or null for the default type (jar). */
+		public String getType() {
+			return type;
+		}
+
+		/** Gets the declared scope, or null for the default scope. */
+		public String getScope() {
+			return scope;
+		}
+
+		public boolean isOptional() {
+			return optional;
+		}
+
+		/**
+		 * Gets whether the dependency is needed at run time, and hence part of
+		 * the component's own class path: that is, whether it is neither
+		 * optional, nor of {@code test}, {@code provided}, {@code system} or
+		 * {@code import} scope.
+		 */
+		public boolean isRuntime() {
+			if (optional) return false;
+			return scope == null || scope.equals("compile") || scope.equals(
+				"runtime");
+		}
+
+		/**
+		 * Gets whether the dependency is a BOM, whose managed dependencies are
+		 * imported: that is, of {@code pom} type and {@code import} scope.
+		 */
+		public boolean isImport() {
+			return "import".equals(scope) && "pom".equals(type);
+		}
+	}
+
+}
@@ -0,0 +1,380 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * A thread-safe cache of component release dates, keyed by {@code G:A:V}.
+ * <p>
+ * A component's release date is the {@code Implementation-Date} in the
+ * manifest of its JAR, which is looked up on the class path or next to its POM
+ * in the local repository. Only the {@code META-INF/MANIFEST.MF} entry is read,
+ * located via the JAR's central directory, and only up to that attribute.
+ * </p>
+ * <p>
+ * If the JAR is not available locally, and {@link #setRemoteFallback remote
+ * fallback} is enabled, the date is taken from the given remote repositories'
+ * {@code maven-metadata.xml} instead: its {@code lastUpdated} timestamp is the
+ * release date of a component's latest release, or the deployment date of a
+ * {@code SNAPSHOT}. Dates of older releases are not known remotely.
+ * </p>
+ * <p>
+ * Dates of release versions never change, so they can be
+ * {@link #save(File) saved} to a properties file and {@link #load(File)
+ * loaded} by later runs. All {@link ComponentIndex} instances share the
+ * {@link #shared()} cache.
+ * </p>
+ */
+public class ReleaseDates {
+
+	private static final ReleaseDates SHARED = new ReleaseDates();
+
+	private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+	private static final String ATTRIBUTE = "Implementation-Date:";
+
+	/** Cached value of components whose release date is unknown. */
+	private static final long NONE = Long.MIN_VALUE;
+
+	/** Format of {@code Implementation-Date}, e.g. 2017-03-31T14:28:44+0000. */
+	private static final DateTimeFormatter IMPLEMENTATION_DATE = //
+		DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss[Z][XXX]");
+
+	/** Format of {@code lastUpdated} in {@code maven-metadata.xml}, in UTC. */
+	private static final DateTimeFormatter LAST_UPDATED = //
+		DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+	private static final ThreadLocal<XMLInputFactory> FACTORY = ThreadLocal
+		.withInitial(ReleaseDates::createFactory);
+
+	/** Release dates in milliseconds since the epoch, or {@link #NONE}. */
+	private final Map<String, Long> dates = new ConcurrentHashMap<>();
+
+	private volatile boolean remoteFallback;
+
+	private long hits, misses;
+
+	/** Gets the cache shared by all component indices. */
+	public static ReleaseDates shared() {
+		return SHARED;
+	}
+
+	// -- ReleaseDates methods --
+
+	public boolean isRemoteFallback() {
+		return remoteFallback;
+	}
+
+	/**
+	 * Sets whether to read the dates of components without a local JAR from the
+	 * remote repositories' {@code maven-metadata.xml}.
+	 */
+	public void setRemoteFallback(final boolean remoteFallback) {
+		this.remoteFallback = remoteFallback;
+	}
+
+	/** Gets the release date of the given component, or null if unknown. */
+	public Date get(final POMSummary pom) {
+		return get(pom, null);
+	}
+
+	/**
+	 * Gets the release date of the given component, or null if unknown.
+	 * 
+	 * @param remote The remote repositories from which to read the date if
+	 *          there is no local JAR, and {@link #setRemoteFallback remote
+	 *          fallback} is enabled; or null for none.
+	 */
+	public Date get(final POMSummary pom, final RepositoryMirrors remote) {
+		final String gav = pom.getGAV();
+		final Long cached = dates.get(gav);
+		synchronized (this) {
+			if (cached == null) misses++;
+			else hits++;
+		}
+		if (cached != null) return cached == NONE ? null : new Date(cached);
+
+		// NB: If several threads look up the same date at once, all of them do
+		// the (idempotent) work, but none of them blocks the others.
+		final Metrics metrics = Metrics.shared();
+		Date date;
+		try (final Metrics.Stopwatch sw = metrics.start("releaseDate.manifest")) {
+			date = manifestDate(jarFile(pom));
+		}
+		if (date == null && remoteFallback && remote != null) {
+			try (final Metrics.Stopwatch sw = metrics.start("releaseDate.remote")) {
+				date = remoteDate(pom, remote);
+			}
+		}
+		dates.putIfAbsent(gav, date == null ? NONE : date.getTime());
+		return date;
+	}
+
+	/** Adds the release dates from the given file to the cache, if it exists. */
+	public void load(final File file) throws IOException {
+		if (!file.exists()) return;
+		final Properties p = new Properties();
+		try (final InputStream in = new FileInputStream(file)) {
+			p.load(in);
+		}
+		for (final String gav : p.stringPropertyNames()) {
+			try {
+				dates.putIfAbsent(gav, Long.parseLong(p.getProperty(gav)));
+			}
+			catch (final NumberFormatException exc) {
+				// NB: Skip invalid entries.
+			}
+		}
+	}
+
+	/**
+	 * Writes the known release dates to the given file. Dates of
+	 * {@code SNAPSHOT} versions are not written, since they change.
+	 */
+	public void save(final File file) throws IOException {
+		final Properties p = new Properties();
+		for (final Map.Entry<String, Long> e : dates.entrySet()) {
+			if (e.getValue() == NONE || e.getKey().endsWith("-SNAPSHOT")) continue;
+			p.setProperty(e.getKey(), e.getValue().toString());
+		}
+		final File dir = file.getAbsoluteFile().getParentFile();
+		dir.mkdirs();
+		final File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+		try (final OutputStream out = new FileOutputStream(tmp)) {
+			p.store(out, "MediaWiki Maven Info release dates");
+		}
+		Files.move(tmp.toPath(), file.toPath(),
+			StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	public int size() {
+		return dates.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/** Removes all dates from the cache. */
+	public synchronized void clear() {
+		dates.clear();
+		hits = misses = 0;
+	}
+
+	// -- Object methods --
+
+	@Override
+	public synchronized String toString() {
+		return dates.size() + " dates, " + hits + " hits, " + misses + " misses";
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Gets the JAR of the given component: the one its POM was read from, or
+	 * the one next to its POM in the local repository, if any.
+	 */
+	static File jarFile(final POMSummary pom) {
+		final String path = pom.getPath();
+		if (path == null) return null;
+		if (path.startsWith("file:")) {
+			final int jar = path.indexOf(".jar!/");
+			if (jar < 0) return null;
+			try {
+				// NB: The path is a URL, so decode any escapes, such as %20.
+				return new File(new URI(path.substring(0, jar + 4)));
+			}
+			catch (final URISyntaxException | IllegalArgumentException exc) {
+				return null;
+			}
+		}
+		if (!path.endsWith(".pom")) return null;
+		final File file = new File(path.substring(0, path.length() - 4) + ".jar");
+		return file.isFile() ? file : null;
+	}
+
+	/**
+	 * Reads the {@code Implementation-Date} from the given JAR's manifest,
+	 * decompressing only the manifest entry, and only up to that attribute.
+	 */
+	static Date manifestDate(final File jar) {
+		if (jar == null) return null;
+		try (final ZipFile zip = new ZipFile(jar)) {
+			final ZipEntry entry = zip.getEntry(MANIFEST);
+			if (entry == null) return null;
+			try (final BufferedReader in = new BufferedReader(new InputStreamReader(
+				zip.getInputStream(entry), StandardCharsets.UTF_8)))
+			{
+				String value = null;
+				while (true) {
+					final String line = in.readLine();
+					// NB: Long values are continued on lines starting with a space.
+					if (value != null && line != null && line.startsWith(" ")) {
+						value += line.substring(1);
+						continue;
+					}
+					if (value != null) return parseDate(value.trim());
+					// NB: The main section ends at the first blank line.
+					if (line == null || line.isEmpty()) return null;
+					if (line.startsWith(ATTRIBUTE)) {
+						value = line.substring(ATTRIBUTE.length());
+					}
+				}
+			}
+		}
+		catch (final IOException exc) {
+			return null;
+		}
+	}
+
+	private static Date parseDate(final String date) {
+		try {
+			return Date.from(OffsetDateTime.parse(date, IMPLEMENTATION_DATE)
+				.toInstant());
+		}
+		catch (final DateTimeParseException exc) {
+			return null;
+		}
+	}
+
+	private static XMLInputFactory createFactory() {
+		final XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES,
+			false);
+		return factory;
+	}
+
+	/** Reads the given component's date from the remote repositories. */
+	private static Date remoteDate(final POMSummary pom,
+		final RepositoryMirrors remote)
+	{
+		final String g = pom.getGroupId();
+		final String a = pom.getArtifactId();
+		final String v = pom.getVersion();
+		if (g == null || a == null || v == null) return null;
+		final boolean snapshot = v.endsWith("-SNAPSHOT");
+		final String path = g.replace('.', '/') + "/" + a + "/" + //
+			(snapshot ? v + "/" : "") + "maven-metadata.xml";
+		final Map<String, String> versioning;
+		try {
+			versioning = versioning(remote, g + ":" + a, path);
+		}
+		catch (final IOException exc) {
+			return null;
+		}
+		// NB: A release's metadata is last updated when its latest version is.
+		if (!snapshot && !v.equals(versioning.get("release"))) return null;
+		final String lastUpdated = versioning.get("lastUpdated");
+		if (lastUpdated == null) return null;
+		try {
+			return Date.from(LocalDateTime.parse(lastUpdated, LAST_UPDATED)
+				.toInstant(ZoneOffset.UTC));
+		}
+		catch (final DateTimeParseException exc) {
+			return null;
+		}
+	}
+
+	/**
+	 * Reads the {@code release} and {@code lastUpdated} elements of the
+	 * {@code <versioning>} section of the given {@code maven-metadata.xml}.
+	 */
+	private static Map<String, String> versioning(
+		final RepositoryMirrors repositories, final String ga, final String path)
+		throws IOException
+	{
+		final Map<String, String> versioning = new HashMap<>();
+		try (final InputStream in = new BufferedInputStream(Metrics.shared()
+			.count("releaseDate.remote.bytes", repositories.open(ga, path))))
+		{
+			final XMLStreamReader r = FACTORY.get().createXMLStreamReader(in);
+			try {
+				int depth = 0;
+				boolean inVersioning = false;
+				while (r.hasNext()) {
+					final int event = r.next();
+					if (event == XMLStreamReader.START_ELEMENT) {
+						depth++;
+						final String name = r.getLocalName();
+						if (depth == 2 && name.equals("versioning")) inVersioning = true;
+						else if (inVersioning && depth == 3 && (name.equals("release") ||
+							name.equals("lastUpdated")))
+						{
+							versioning.put(name, r.getElementText().trim());
+							depth--;
+						}
+					}
+					else if (event == XMLStreamReader.END_ELEMENT) {
+						if (depth == 2) inVersioning = false;
+						depth--;
+					}
+				}
+			}
+			finally {
+				r.close();
+			}
+		}
+		catch (final XMLStreamException exc) {
+			throw new IOException("Invalid metadata: " + repositories.getURL(ga,
+				path), exc);
+		}
+		return versioning;
+	}
+
+}
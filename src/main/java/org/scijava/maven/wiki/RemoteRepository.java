@@ -0,0 +1,304 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A remote Maven repository, from which files are fetched over HTTP.
+ * <p>
+ * Requests go through one shared {@link HttpClient}, which keeps connections
+ * alive and reuses them across requests, and multiplexes concurrent requests
+ * over HTTP/2 where the server supports it. Requests may be made from many
+ * threads at once. Responses may be compressed with gzip.
+ * </p>
+ * <p>
+ * If a {@link #setCacheDir cache directory} is set, each fetched file is kept
+ * there, along with its {@code ETag} and {@code Last-Modified} validators.
+ * Released artifacts never change, so cached copies of them are used without
+ * asking the server at all. Other files, such as {@code maven-metadata.xml} and
+ * {@code SNAPSHOT} artifacts, are fetched with a conditional GET, so that the
+ * cached copy is reused if the server answers {@code 304 Not Modified}.
+ * </p>
+ */
+public class RemoteRepository {
+
+	/** URL of the SciJava public Maven repository. */
+	public static final String DEFAULT_URL =
+		"https://maven.scijava.org/content/groups/public/";
+
+	/** Connect timeout, and time to wait for each response. */
+	private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+	/** Suffix of the files which hold the validators of cached files. */
+	private static final String VALIDATORS = ".http";
+
+	/** Client shared by all repositories, and its pool of connections. */
+	private static final HttpClient CLIENT = HttpClient.newBuilder() //
+		.connectTimeout(TIMEOUT) //
+		.followRedirects(HttpClient.Redirect.NORMAL) //
+		.build();
+
+	private final String url;
+
+	private final Metrics metrics = Metrics.shared();
+
+	/** Where fetched files are cached, or null for nowhere. */
+	private volatile File cacheDir;
+
+	private long requests, notModified, cached;
+
+	public RemoteRepository(final String url) {
+		this.url = url.endsWith("/") ? url : url + "/";
+	}
+
+	// -- RemoteRepository methods --
+
+	public String getURL() {
+		return url;
+	}
+
+	/** Gets the URL of the file at the given path of the repository. */
+	public URL getURL(final String path) throws IOException {
+		return new URL(url + path);
+	}
+
+	public File getCacheDir() {
+		return cacheDir;
+	}
+
+	/**
+	 * Sets the directory in which to cache fetched files, or null to cache
+	 * nothing.
+	 */
+	public void setCacheDir(final File cacheDir) {
+		this.cacheDir = cacheDir;
+	}
+
+	/**
+	 * Reads the file at the given path of the repository, e.g.
+	 * {@code org/scijava/scijava-common/2.77.0/scijava-common-2.77.0.pom}.
+	 * 
+	 * @throws FileNotFoundException if the repository has no such file.
+	 */
+	public InputStream open(final String path) throws IOException {
+		final File file = cacheDir == null ? null : new File(cacheDir, path);
+		final File validatorsFile = file == null ? null : //
+			new File(file.getPath() + VALIDATORS);
+		final boolean haveCopy = file != null && file.isFile();
+		if (haveCopy && isImmutable(path)) {
+			synchronized (this) {
+				cached++;
+			}
+			metrics.count("remote.cached", 1);
+			return new FileInputStream(file);
+		}
+
+		final URL u = getURL(path);
+		final HttpRequest.Builder request;
+		try {
+			request = HttpRequest.newBuilder(u.toURI());
+		}
+		catch (final URISyntaxException exc) {
+			throw new IOException("Invalid URL: " + u, exc);
+		}
+		request.timeout(TIMEOUT);
+		request.header("User-Agent", "mediawiki-maven-info");
+		request.header("Accept-Encoding", "gzip");
+		final Properties validators = haveCopy ? load(validatorsFile) : null;
+		if (validators != null) {
+			final String etag = validators.getProperty("ETag");
+			final String lastModified = validators.getProperty("Last-Modified");
+			if (etag != null) request.header("If-None-Match", etag);
+			if (lastModified != null) {
+				request.header("If-Modified-Since", lastModified);
+			}
+		}
+		synchronized (this) {
+			requests++;
+		}
+		metrics.count("remote.requests", 1);
+		final HttpResponse<InputStream> response;
+		try {
+			response = CLIENT.send(request.build(), HttpResponse.BodyHandlers
+				.ofInputStream());
+		}
+		catch (final InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while fetching " + u);
+		}
+		final int code = response.statusCode();
+		if (code == HttpURLConnection.HTTP_NOT_MODIFIED && validators != null) {
+			discard(response);
+			synchronized (this) {
+				notModified++;
+			}
+			metrics.count("remote.notModified", 1);
+			return new FileInputStream(file);
+		}
+		if (code == HttpURLConnection.HTTP_NOT_FOUND || //
+			code == HttpURLConnection.HTTP_GONE)
+		{
+			discard(response);
+			throw new FileNotFoundException(u.toString());
+		}
+		if (code != HttpURLConnection.HTTP_OK) {
+			discard(response);
+			throw new IOException("HTTP " + code + " from " + u);
+		}
+
+		final HttpHeaders headers = response.headers();
+		final InputStream body = "gzip".equalsIgnoreCase(headers.firstValue(
+			"Content-Encoding").orElse(null)) ? //
+				new GZIPInputStream(response.body()) : response.body();
+		if (file == null) return body;
+		final byte[] content;
+		try (final InputStream in = body) {
+			content = in.readAllBytes();
+		}
+		save(file, validatorsFile, content, headers);
+		return new ByteArrayInputStream(content);
+	}
+
+	/**
+	 * Whether the file at the given path can be read from the cache, without
+	 * any request.
+	 */
+	public boolean isCached(final String path) {
+		final File dir = cacheDir;
+		return dir != null && isImmutable(path) && new File(dir, path).isFile();
+	}
+
+	public synchronized long getRequestCount() {
+		return requests;
+	}
+
+	/** Gets the number of requests answered with {@code 304 Not Modified}. */
+	public synchronized long getNotModifiedCount() {
+		return notModified;
+	}
+
+	/** Gets the number of files read from the cache without any request. */
+	public synchronized long getCachedCount() {
+		return cached;
+	}
+
+	// -- Object methods --
+
+	@Override
+	public synchronized String toString() {
+		return url + ": " + requests + " requests, " + notModified +
+			" not modified, " + cached + " cached";
+	}
+
+	// -- Helper methods --
+
+	/** Whether the file at the given path never changes once deployed. */
+	private static boolean isImmutable(final String path) {
+		return !path.contains("-SNAPSHOT") && !path.endsWith("maven-metadata.xml");
+	}
+
+	/**
+	 * Writes the given content and validators to the cache. Failures are not
+	 * fatal, since the content is at hand anyway.
+	 */
+	private static void save(final File file, final File validatorsFile,
+		final byte[] content, final HttpHeaders headers)
+	{
+		final Properties validators = new Properties();
+		final String etag = headers.firstValue("ETag").orElse(null);
+		final String lastModified = headers.firstValue("Last-Modified").orElse(
+			null);
+		if (etag != null) validators.setProperty("ETag", etag);
+		if (lastModified != null) {
+			validators.setProperty("Last-Modified", lastModified);
+		}
+		try {
+			final File dir = file.getParentFile();
+			dir.mkdirs();
+			// NB: Drop the old validators first, so they never describe new content.
+			validatorsFile.delete();
+			final File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+			Files.write(tmp.toPath(), content);
+			Files.move(tmp.toPath(), file.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+			if (validators.isEmpty()) return;
+			final File vtmp = File.createTempFile(file.getName(), ".tmp", dir);
+			try (final OutputStream out = new FileOutputStream(vtmp)) {
+				validators.store(out, null);
+			}
+			Files.move(vtmp.toPath(), validatorsFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		}
+		catch (final IOException exc) {
+			System.err.println("Cannot cache " + file + ": " + exc);
+		}
+	}
+
+	private static Properties load(final File validatorsFile) {
+		if (!validatorsFile.isFile()) return null;
+		final Properties validators = new Properties();
+		try (final InputStream in = new FileInputStream(validatorsFile)) {
+			validators.load(in);
+		}
+		catch (final IOException exc) {
+			return null;
+		}
+		return validators;
+	}
+
+	/**
+	 * Reads and closes the rest of the response, so that the connection can be
+	 * reused for later requests.
+	 */
+	private static void discard(final HttpResponse<InputStream> response) {
+		try (final InputStream body = response.body()) {
+			body.transferTo(OutputStream.nullOutputStream());
+		}
+		catch (final IOException exc) {
+			// NB: The connection is not reused then, which is fine.
+		}
+	}
+
+}
@@ -0,0 +1,399 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An ordered list of remote Maven repositories which serve the same
+ * artifacts, such as a local mirror, a Nexus proxy and Maven Central.
+ * <p>
+ * Each file is fetched from the fastest healthy repository: the one with the
+ * lowest average latency so far, among those which have not failed recently.
+ * Each repository is tried early on, to measure it; until then, and among
+ * equals, they are preferred in the order given. A repository which fails is
+ * avoided for a while, for longer the more often it fails in a row, and the
+ * next one is tried instead. A repository which does not have a file is not
+ * at fault; the next one is asked for it.
+ * </p>
+ * <p>
+ * The repository which served each component, by {@code G:A}, is remembered,
+ * so that its other files are sought there first.
+ * </p>
+ * <p>
+ * If a {@link #setHedgeDelay hedge delay} is set, a request which takes longer
+ * than that is hedged: the same file is requested from the next repository as
+ * well, and whichever answers first wins.
+ * </p>
+ */
+public class RepositoryMirrors {
+
+	/** Weight of each new sample in the average latency of a repository. */
+	private static final double ALPHA = 0.2;
+
+	/** How long a repository is avoided after failing once, in ms. */
+	private static final long MIN_BACKOFF = 1000;
+
+	/** How long a repository is avoided at most after failing, in ms. */
+	private static final long MAX_BACKOFF = 60000;
+
+	private static ExecutorService hedgeExecutor;
+
+	private final List<RemoteRepository> repositories;
+
+	private final Map<RemoteRepository, Health> health = new IdentityHashMap<>();
+
+	/** The repository which served each component, by {@code G:A}. */
+	private final Map<String, RemoteRepository> sources =
+		new ConcurrentHashMap<>();
+
+	private final Metrics metrics = Metrics.shared();
+
+	/** Delay after which requests are hedged, in ms; 0 for never. */
+	private volatile long hedgeDelay;
+
+	public RepositoryMirrors(final RemoteRepository... repositories) {
+		this(Arrays.asList(repositories));
+	}
+
+	/** Creates mirrors of the given repositories, in order of preference. */
+	public RepositoryMirrors(final List<RemoteRepository> repositories) {
+		if (repositories.isEmpty()) {
+			throw new IllegalArgumentException("No repositories");
+		}
+		this.repositories = Collections.unmodifiableList(new ArrayList<>(
+			repositories));
+		for (final RemoteRepository repository : repositories) {
+			health.put(repository, new Health());
+		}
+	}
+
+	// -- RepositoryMirrors methods --
+
+	public List<RemoteRepository> getRepositories() {
+		return repositories;
+	}
+
+	/**
+	 * Sets the directory in which all the repositories cache fetched files. The
+	 * repositories serve the same artifacts, so they share the cache.
+	 */
+	public void setCacheDir(final File cacheDir) {
+		for (final RemoteRepository repository : repositories) {
+			repository.setCacheDir(cacheDir);
+		}
+	}
+
+	public long getHedgeDelay() {
+		return hedgeDelay;
+	}
+
+	/**
+	 * Sets how long to wait for a repository before requesting the same file
+	 * from the next one too, in milliseconds, or 0 never to do so.
+	 */
+	public void setHedgeDelay(final long hedgeDelay) {
+		if (hedgeDelay < 0) {
+			throw new IllegalArgumentException("Invalid hedge delay: " +
+				hedgeDelay);
+		}
+		this.hedgeDelay = hedgeDelay;
+	}
+
+	/**
+	 * Reads the file at the given path from the best repository which has it.
+	 * 
+	 * @param ga The {@code G:A} of the component the file belongs to.
+	 * @param path The path of the file within the repositories.
+	 * @throws FileNotFoundException if no repository has the file.
+	 */
+	public InputStream open(final String ga, final String path)
+		throws IOException
+	{
+		// NB: A cached file needs no repository at all.
+		final RemoteRepository first = repositories.get(0);
+		if (first.isCached(path)) return first.open(path);
+
+		final List<RemoteRepository> candidates = candidates(ga);
+		final byte[] content = hedgeDelay > 0 && candidates.size() > 1 ? //
+			fetchHedged(candidates, ga, path) : fetchInTurn(candidates, ga, path);
+		return new ByteArrayInputStream(content);
+	}
+
+	/**
+	 * Gets the URL of the given file at the repository which served the given
+	 * component, or else at the first repository.
+	 */
+	public URL getURL(final String ga, final String path) throws IOException {
+		final RemoteRepository source = sources.get(ga);
+		return (source == null ? repositories.get(0) : source).getURL(path);
+	}
+
+	/** Gets the average latency of the given repository, or -1 if unknown. */
+	public long getLatency(final RemoteRepository repository) {
+		final Health h = health(repository);
+		synchronized (h) {
+			return h.samples == 0 ? -1 : Math.round(h.latency);
+		}
+	}
+
+	/** Gets whether the given repository has not failed recently. */
+	public boolean isHealthy(final RemoteRepository repository) {
+		return health(repository).isHealthy(System.currentTimeMillis());
+	}
+
+	// -- Object methods --
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		for (final RemoteRepository repository : repositories) {
+			if (sb.length() > 0) sb.append("; ");
+			sb.append(repository);
+			final long latency = getLatency(repository);
+			if (latency >= 0) sb.append(", ").append(latency).append(" ms average");
+			if (!isHealthy(repository)) sb.append(", unhealthy");
+		}
+		return sb.toString();
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Lists the repositories in the order in which to ask them: the one which
+	 * served the component before, then the healthy ones by latency, then the
+	 * others. Repositories of unknown latency come first, so that each is
+	 * measured early on.
+	 */
+	private List<RemoteRepository> candidates(final String ga) {
+		final long now = System.currentTimeMillis();
+		final Map<RemoteRepository, Double> scores = new IdentityHashMap<>();
+		for (final RemoteRepository repository : repositories) {
+			final Health h = health(repository);
+			double score;
+			synchronized (h) {
+				score = h.samples == 0 ? 0 : h.latency;
+			}
+			if (!h.isHealthy(now)) score = Double.POSITIVE_INFINITY;
+			scores.put(repository, score);
+		}
+		final List<RemoteRepository> candidates = new ArrayList<>(repositories);
+		// NB: The sort is stable, so ties keep the configured order.
+		candidates.sort(Comparator.comparing(scores::get));
+		final RemoteRepository source = sources.get(ga);
+		if (source != null && health(source).isHealthy(now)) {
+			candidates.remove(source);
+			candidates.add(0, source);
+		}
+		return candidates;
+	}
+
+	/** Asks the given repositories for the file one after another. */
+	private byte[] fetchInTurn(final List<RemoteRepository> candidates,
+		final String ga, final String path) throws IOException
+	{
+		IOException failure = null;
+		for (int i = 0; i < candidates.size(); i++) {
+			if (i > 0) metrics.count("mirrors.failover", 1);
+			try {
+				return fetch(candidates.get(i), ga, path);
+			}
+			catch (final IOException exc) {
+				failure = worse(failure, exc);
+			}
+		}
+		throw failure;
+	}
+
+	/**
+	 * Asks the given repositories for the file, asking the next one as well
+	 * whenever those asked so far take longer than the hedge delay, or instead
+	 * when one fails.
+	 */
+	private byte[] fetchHedged(final List<RemoteRepository> candidates,
+		final String ga, final String path) throws IOException
+	{
+		final CompletionService<byte[]> fetches = //
+			new ExecutorCompletionService<>(hedgeExecutor());
+		IOException failure = null;
+		int next = 0, pending = 0;
+		submit(fetches, candidates.get(next++), ga, path);
+		pending++;
+		try {
+			while (true) {
+				final Future<byte[]> done = next < candidates.size() ? //
+					fetches.poll(hedgeDelay, TimeUnit.MILLISECONDS) : fetches.take();
+				if (done == null) {
+					metrics.count("mirrors.hedged", 1);
+					submit(fetches, candidates.get(next++), ga, path);
+					pending++;
+					continue;
+				}
+				pending--;
+				try {
+					// NB: Any slower requests still in flight finish in the
+					// background, and count toward their repositories' latency.
+					return done.get();
+				}
+				catch (final ExecutionException exc) {
+					final Throwable cause = exc.getCause();
+					if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+					if (cause instanceof Error) throw (Error) cause;
+					failure = worse(failure, (IOException) cause);
+				}
+				if (next < candidates.size()) {
+					metrics.count("mirrors.failover", 1);
+					submit(fetches, candidates.get(next++), ga, path);
+					pending++;
+				}
+				else if (pending == 0) throw failure;
+			}
+		}
+		catch (final InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while fetching " + path);
+		}
+	}
+
+	private void submit(final CompletionService<byte[]> fetches,
+		final RemoteRepository repository, final String ga, final String path)
+	{
+		fetches.submit(() -> fetch(repository, ga, path));
+	}
+
+	/**
+	 * Reads the whole file from the given repository, recording how long it
+	 * took, or that the repository failed.
+	 */
+	private byte[] fetch(final RemoteRepository repository, final String ga,
+		final String path) throws IOException
+	{
+		final Health h = health(repository);
+		final long start = System.nanoTime();
+		final byte[] content;
+		try (final InputStream in = repository.open(path)) {
+			content = in.readAllBytes();
+		}
+		catch (final FileNotFoundException exc) {
+			// NB: A repository which lacks a file is not unhealthy.
+			h.succeeded(System.nanoTime() - start);
+			throw exc;
+		}
+		catch (final IOException exc) {
+			h.failed(System.currentTimeMillis());
+			throw exc;
+		}
+		h.succeeded(System.nanoTime() - start);
+		sources.put(ga, repository);
+		return content;
+	}
+
+	private Health health(final RemoteRepository repository) {
+		final Health h = health.get(repository);
+		if (h == null) {
+			throw new IllegalArgumentException("Not a mirror: " + repository);
+		}
+		return h;
+	}
+
+	/**
+	 * Picks the failure to report: one which may have hidden the file rather
+	 * than a repository's word that it has no such file.
+	 */
+	private static IOException worse(final IOException failure,
+		final IOException exc)
+	{
+		if (failure == null || failure instanceof FileNotFoundException) {
+			return exc;
+		}
+		return failure;
+	}
+
+	private static synchronized ExecutorService hedgeExecutor() {
+		if (hedgeExecutor == null) {
+			hedgeExecutor = Executors.newCachedThreadPool(r -> {
+				final Thread t = new Thread(r, "RepositoryMirrors-fetcher");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return hedgeExecutor;
+	}
+
+	// -- Helper classes --
+
+	/** The track record of a repository. */
+	private static class Health {
+
+		/** Average latency, in ms. */
+		private double latency;
+
+		private long samples;
+
+		/** Number of failures in a row. */
+		private int failures;
+
+		/** Time until which the repository is avoided, in ms since the epoch. */
+		private long downUntil;
+
+		public synchronized void succeeded(final long nanos) {
+			final double ms = nanos / 1e6;
+			latency = samples++ == 0 ? ms : ALPHA * ms + (1 - ALPHA) * latency;
+			failures = 0;
+			downUntil = 0;
+		}
+
+		public synchronized void failed(final long now) {
+			failures++;
+			final long backoff = MIN_BACKOFF << Math.min(failures - 1, 16);
+			downUntil = now + Math.min(backoff, MAX_BACKOFF);
+		}
+
+		public synchronized boolean isHealthy(final long now) {
+			return now >= downUntil;
+		}
+	}
+
+}
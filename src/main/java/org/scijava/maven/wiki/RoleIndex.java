@@ -0,0 +1,121 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+package org.scijava.maven.wiki;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.scijava.maven.wiki.ComponentMetadata.Person;
+
+/**
+ * An index of a component's team by role, built in a single pass over its
+ * developers and contributors.
+ */
+public class RoleIndex {
+
+	/** The roles with a row of their own in the component table. */
+	public static final List<String> KNOWN_ROLES = Collections.unmodifiableList(
+		Arrays.asList("founder", "lead", "developer", "debugger", "reviewer",
+			"support", "maintainer"));
+
+	private static final Set<String> KNOWN_ROLE_SET = new HashSet<>(KNOWN_ROLES);
+
+	/** Developers by (lower case) role, in declaration order. */
+	private final Map<String, List<Person>> byRole = new HashMap<>();
+
+	/** Founders among developers, then among contributors. */
+	private final List<Person> founders = new ArrayList<>();
+
+	/** Developers with roles outside {@link #KNOWN_ROLES}, and those roles. */
+	private final Map<Person, List<String>> unknownRoles =
+		new LinkedHashMap<>();
+
+	public RoleIndex(final ComponentMetadata meta) {
+		for (final Person developer : meta.getDevelopers()) {
+			List<String> unknown = null;
+			for (final String role : developer.getRoles()) {
+				final List<Person> people = byRole.computeIfAbsent(key(role),
+					k -> new ArrayList<>());
+				// NB: List each person once, even if a role is repeated.
+				if (people.isEmpty() || people.get(people.size() - 1) != developer) {
+					people.add(developer);
+				}
+				if (!KNOWN_ROLE_SET.contains(role)) {
+					if (unknown == null) unknown = new ArrayList<>();
+					unknown.add(role);
+				}
+			}
+			if (unknown != null) unknownRoles.put(developer, unknown);
+		}
+		founders.addAll(get("founder"));
+		// NB: Also include founders currently classified as contributors.
+		for (final Person contributor : meta.getContributors()) {
+			if (contributor.hasRole("founder")) founders.add(contributor);
+		}
+	}
+
+	// -- RoleIndex methods --
+
+	/** Gets the developers with the given role, in declaration order. */
+	public List<Person> get(final String role) {
+		final List<Person> people = byRole.get(key(role));
+		return people == null ? Collections.<Person> emptyList() : //
+			Collections.unmodifiableList(people);
+	}
+
+	/** Gets the number of developers with the given role. */
+	public int count(final String role) {
+		final List<Person> people = byRole.get(key(role));
+		return people == null ? 0 : people.size();
+	}
+
+	/** Gets the founders: those among the developers, then the contributors. */
+	public List<Person> getFounders() {
+		return Collections.unmodifiableList(founders);
+	}
+
+	/**
+	 * Gets the developers with roles other than the {@link #KNOWN_ROLES}, mapped
+	 * to those other roles.
+	 */
+	public Map<Person, List<String>> getUnknownRoles() {
+		return Collections.unmodifiableMap(unknownRoles);
+	}
+
+	// -- Helper methods --
+
+	private String key(final String role) {
+		return role.toLowerCase(Locale.ENGLISH);
+	}
+
+}
@@ -0,0 +1,49 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.IOException;
+
+/**
+ * Signals that a wiki refused a request because it is overloaded, and asked
+ * for the request to be retried later: either via a {@code maxlag} error, or
+ * via an HTTP {@code Retry-After} header.
+ */
+public class ThrottledException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long retryAfter;
+
+	public ThrottledException(final String message, final long retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+	/** Gets how long to wait before retrying, in milliseconds. */
+	public long getRetryAfter() {
+		return retryAfter;
+	}
+
+}
@@ -0,0 +1,172 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * A persistent record of what was last uploaded to each wiki page.
+ * <p>
+ * For each page (e.g., {@code Template:ComponentStats:<G>:<A>}), the ledger
+ * remembers the {@link WikiUpdater#contentHash content hash} of the text last
+ * uploaded or seen, along with the page's revision ID at that time, if known.
+ * This lets the {@link WikiUpdater} recognize unchanged pages without asking
+ * the wiki at all, or by comparing only revision IDs rather than page text.
+ * </p>
+ * <p>
+ * In incremental mode, the ledger also remembers the
+ * {@link ComponentIndex#getFingerprint fingerprint} of the inputs from which
+ * each page was generated, so that pages whose inputs have not changed since
+ * need not even be generated again.
+ * </p>
+ * <p>
+ * The ledger is a properties file mapping each page name to its hash,
+ * revision ID and, if known, fingerprint, separated by spaces.
+ * </p>
+ */
+public class UploadLedger {
+
+	/** Revision ID of pages whose current revision is not known. */
+	public static final long UNKNOWN_REVISION = -1;
+
+	private final File file;
+
+	private final Properties entries = new Properties();
+
+	/** Loads the ledger from the given file, if it exists. */
+	public UploadLedger(final File file) throws IOException {
+		this.file = file;
+		if (file.exists()) {
+			try (final InputStream in = new FileInputStream(file)) {
+				entries.load(in);
+			}
+		}
+	}
+
+	// -- UploadLedger methods --
+
+	public File getFile() {
+		return file;
+	}
+
+	/** Gets the recorded content hash of the given page, or null if none. */
+	public synchronized String getHash(final String pageName) {
+		return field(pageName, 0);
+	}
+
+	/** Gets the recorded revision ID of the given page, if known. */
+	public synchronized long getRevision(final String pageName) {
+		final String revision = field(pageName, 1);
+		if (revision == null) return UNKNOWN_REVISION;
+		try {
+			return Long.parseLong(revision);
+		}
+		catch (final NumberFormatException exc) {
+			return UNKNOWN_REVISION;
+		}
+	}
+
+	/**
+	 * Gets the recorded fingerprint of the inputs of the given page, or null if
+	 * none.
+	 */
+	public synchronized String getFingerprint(final String pageName) {
+		return field(pageName, 2);
+	}
+
+	/**
+	 * Records the content hash and revision ID of the given page, forgetting
+	 * its fingerprint.
+	 */
+	public void put(final String pageName, final String hash,
+		final long revision)
+	{
+		put(pageName, hash, revision, null);
+	}
+
+	/**
+	 * Records the content hash, revision ID and fingerprint of the given page.
+	 * 
+	 * @param fingerprint The fingerprint of the inputs from which the page was
+	 *          generated, or null if unknown.
+	 */
+	public synchronized void put(final String pageName, final String hash,
+		final long revision, final String fingerprint)
+	{
+		entries.setProperty(pageName, hash + " " + revision + //
+			(fingerprint == null ? "" : " " + fingerprint));
+	}
+
+	/** Forgets everything recorded about the given page. */
+	public synchronized void remove(final String pageName) {
+		entries.remove(pageName);
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/** Writes the ledger back to its file. */
+	public synchronized void save() throws IOException {
+		final File dir = file.getAbsoluteFile().getParentFile();
+		dir.mkdirs();
+		final File tmp = File.createTempFile(file.getName(), ".tmp", dir);
+		try (final OutputStream out = new FileOutputStream(tmp)) {
+			entries.store(out, "MediaWiki Maven Info upload ledger");
+		}
+		Files.move(tmp.toPath(), file.toPath(),
+			StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	// -- Object methods --
+
+	@Override
+	public synchronized String toString() {
+		return file + ": " + entries.size() + " pages";
+	}
+
+	// -- Helper methods --
+
+	/** Gets the given space-separated field of the page's entry, if any. */
+	private String field(final String pageName, final int index) {
+		final String entry = entries.getProperty(pageName);
+		if (entry == null) return null;
+		int start = 0;
+		for (int i = 0; i < index; i++) {
+			start = entry.indexOf(' ', start) + 1;
+			if (start == 0) return null;
+		}
+		final int end = entry.indexOf(' ', start);
+		return end < 0 ? entry.substring(start) : entry.substring(start, end);
+	}
+
+}
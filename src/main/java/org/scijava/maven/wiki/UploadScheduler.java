@@ -0,0 +1,359 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.login.LoginException;
+
+/**
+ * Schedules page uploads onto a pool of worker threads, limiting the rate of
+ * edits and retrying failed ones.
+ * <p>
+ * Edits are started at most {@link #getRate()} times per second, according to
+ * a token bucket which allows short bursts of up to one second's worth of
+ * edits. When the wiki throttles an edit (see {@link ThrottledException}), all
+ * workers pause for as long as the wiki asks; other I/O errors are retried
+ * after an exponentially growing delay. Each upload ends with a
+ * {@link Status}, rather than aborting the run.
+ * </p>
+ */
+public class UploadScheduler {
+
+	/** Delay before the first retry of an edit which failed, in ms. */
+	public static final long INITIAL_BACKOFF = 1000;
+
+	/** The outcome of an upload. */
+	public enum Status {
+			/** The page was uploaded at the first attempt. */
+			SUCCESS,
+			/** The page was uploaded, after one or more retries. */
+			RETRIED,
+			/** The page could not be uploaded. */
+			FAILED
+	}
+
+	private final ExecutorService executor;
+
+	/** Maximum number of edits started per second, or 0 for no limit. */
+	private final double rate;
+
+	/** Maximum number of times to retry a failed edit. */
+	private final int maxRetries;
+
+	/** Number of tokens currently available to start edits. */
+	private double tokens;
+
+	/** Time at which the token bucket was last refilled, in ns. */
+	private long lastRefill = System.nanoTime();
+
+	/** Time until which all workers are paused at the wiki's request, in ns. */
+	private long pausedUntil = System.nanoTime();
+
+	private final List<Result> results = new ArrayList<>();
+
+	private int pending;
+
+	private long firstStart = -1, lastFinish = -1;
+
+	/**
+	 * Creates a scheduler.
+	 * 
+	 * @param concurrency The number of edits to perform at once.
+	 * @param rate The maximum number of edits to start per second, or 0 for no
+	 *          limit.
+	 * @param maxRetries The maximum number of times to retry a failed edit.
+	 */
+	public UploadScheduler(final int concurrency, final double rate,
+		final int maxRetries)
+	{
+		if (concurrency <= 0) {
+			throw new IllegalArgumentException("Invalid concurrency: " +
+				concurrency);
+		}
+		executor = Executors.newFixedThreadPool(concurrency, r -> {
+			final Thread t = new Thread(r, "UploadScheduler-worker");
+			t.setDaemon(true);
+			return t;
+		});
+		this.rate = rate;
+		this.maxRetries = maxRetries;
+		tokens = Math.max(1, rate);
+	}
+
+	// -- UploadScheduler methods --
+
+	public double getRate() {
+		return rate;
+	}
+
+	public int getMaxRetries() {
+		return maxRetries;
+	}
+
+	/**
+	 * Schedules the given upload.
+	 * 
+	 * @param pageName The name of the page being uploaded.
+	 * @param upload The upload itself.
+	 * @param callback Notified of the result once the upload is finished, on the
+	 *          worker thread which performed it; may be null.
+	 */
+	public void submit(final String pageName, final Upload upload,
+		final Callback callback)
+	{
+		synchronized (this) {
+			pending++;
+		}
+		executor.execute(() -> {
+			final Result result = perform(pageName, upload);
+			try {
+				if (callback != null) callback.finished(result);
+			}
+			finally {
+				synchronized (this) {
+					results.add(result);
+					pending--;
+					notifyAll();
+				}
+			}
+		});
+	}
+
+	/** Waits until all scheduled uploads are finished. */
+	public synchronized void await() throws InterruptedException {
+		while (pending > 0)
+			wait();
+	}
+
+	/** Waits for all scheduled uploads, then stops the worker threads. */
+	public void shutdown() throws InterruptedException {
+		await();
+		executor.shutdown();
+	}
+
+	/** Gets the results of all uploads finished so far. */
+	public synchronized List<Result> getResults() {
+		return new ArrayList<>(results);
+	}
+
+	/** Gets the number of finished uploads with the given status. */
+	public synchronized int count(final Status status) {
+		int count = 0;
+		for (final Result result : results) {
+			if (result.getStatus() == status) count++;
+		}
+		return count;
+	}
+
+	/** Gets the number of uploads finished per second, so far. */
+	public synchronized double getThroughput() {
+		if (results.isEmpty() || lastFinish <= firstStart) return 0;
+		return results.size() * 1e9 / (lastFinish - firstStart);
+	}
+
+	/** Gets the mean latency of the finished uploads, in ms. */
+	public synchronized double getMeanLatency() {
+		if (results.isEmpty()) return 0;
+		long total = 0;
+		for (final Result result : results) {
+			total += result.getLatency();
+		}
+		return total / 1e6 / results.size();
+	}
+
+	/** Gets the maximum latency of the finished uploads, in ms. */
+	public synchronized double getMaxLatency() {
+		long max = 0;
+		for (final Result result : results) {
+			max = Math.max(max, result.getLatency());
+		}
+		return max / 1e6;
+	}
+
+	// -- Object methods --
+
+	@Override
+	public synchronized String toString() {
+		return results.size() + " uploads (" + count(Status.SUCCESS) +
+			" succeeded, " + count(Status.RETRIED) + " retried, " + count(
+				Status.FAILED) + " failed); " + String.format(
+					"%.2f/s, latency mean %.0f ms, max %.0f ms", getThroughput(),
+					getMeanLatency(), getMaxLatency());
+	}
+
+	// -- Helper methods --
+
+	private Result perform(final String pageName, final Upload upload) {
+		final long start = System.nanoTime();
+		synchronized (this) {
+			if (firstStart < 0) firstStart = start;
+		}
+		Exception error = null;
+		int attempt = 0;
+		long backoff = INITIAL_BACKOFF;
+		while (true) {
+			try {
+				acquire();
+				upload.run();
+				error = null;
+				break;
+			}
+			catch (final ThrottledException exc) {
+				// NB: The wiki is overloaded; pause all workers, not just this one.
+				error = exc;
+				if (attempt >= maxRetries) break;
+				pause(exc.getRetryAfter());
+			}
+			catch (final IOException exc) {
+				error = exc;
+				if (attempt >= maxRetries) break;
+				sleep(backoff);
+				backoff *= 2;
+			}
+			catch (final LoginException | RuntimeException exc) {
+				// NB: Not worth retrying.
+				error = exc;
+				break;
+			}
+			catch (final InterruptedException exc) {
+				Thread.currentThread().interrupt();
+				error = exc;
+				break;
+			}
+			attempt++;
+		}
+		final long finish = System.nanoTime();
+		synchronized (this) {
+			lastFinish = Math.max(lastFinish, finish);
+		}
+		final Status status = error != null ? Status.FAILED : //
+			attempt > 0 ? Status.RETRIED : Status.SUCCESS;
+		if (error != null) {
+			System.err.println("Failed to upload " + pageName + ": " + error);
+		}
+		return new Result(pageName, status, attempt + 1, finish - start, error);
+	}
+
+	/**
+	 * Waits until the wiki is not throttled, and a token is available to start
+	 * an edit.
+	 */
+	private void acquire() throws InterruptedException {
+		while (true) {
+			final long delay;
+			synchronized (this) {
+				final long now = System.nanoTime();
+				if (now < pausedUntil) delay = pausedUntil - now;
+				else if (rate <= 0) return;
+				else {
+					tokens = Math.min(Math.max(1, rate), //
+						tokens + (now - lastRefill) * rate / 1e9);
+					lastRefill = now;
+					if (tokens >= 1) {
+						tokens--;
+						return;
+					}
+					delay = (long) ((1 - tokens) * 1e9 / rate);
+				}
+			}
+			TimeUnit.NANOSECONDS.sleep(Math.max(delay, 1));
+		}
+	}
+
+	private synchronized void pause(final long millis) {
+		pausedUntil = Math.max(pausedUntil, System.nanoTime() + millis * 1000000);
+	}
+
+	private void sleep(final long millis) {
+		try {
+			Thread.sleep(millis);
+		}
+		catch (final InterruptedException exc) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	// -- Helper classes --
+
+	/** An upload to perform. */
+	public interface Upload {
+
+		void run() throws IOException, LoginException;
+	}
+
+	/** Notified when an upload is finished. */
+	public interface Callback {
+
+		void finished(Result result);
+	}
+
+	/** The result of an upload. */
+	public static class Result {
+
+		private final String pageName;
+		private final Status status;
+		private final int attempts;
+		private final long latency;
+		private final Exception error;
+
+		public Result(final String pageName, final Status status,
+			final int attempts, final long latency, final Exception error)
+		{
+			this.pageName = pageName;
+			this.status = status;
+			this.attempts = attempts;
+			this.latency = latency;
+			this.error = error;
+		}
+
+		public String getPageName() {
+			return pageName;
+		}
+
+		public Status getStatus() {
+			return status;
+		}
+
+		public int getAttempts() {
+			return attempts;
+		}
+
+		/** Gets the time from first attempt to final outcome, in ns. */
+		public long getLatency() {
+			return latency;
+		}
+
+		/** Gets the error which caused the upload to fail, or null. */
+		public Exception getError() {
+			return error;
+		}
+	}
+
+}
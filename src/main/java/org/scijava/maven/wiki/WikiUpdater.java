@@ -26,15 +26,36 @@ package org.scijava.maven.wiki;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
+import java.io.Flushable;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
 
 import javax.security.auth.login.FailedLoginException;
 import javax.security.auth.login.LoginException;
 
-import org.scijava.util.POM;
 import org.wikipedia.Wiki;
 
 /**
@@ -60,75 +81,812 @@ public class WikiUpdater {
 
 	private static final String SEP = ":";
 
+	/** Prefix marking each uploaded page as generated by this tool. */
+	private static final String AUTOGENERATED =
+		"<noinclude>{{Autogenerated|template}}</noinclude>";
+
+	/**
+	 * Default maximum number of pages read per API request. This is the limit
+	 * MediaWiki imposes on clients without the {@code apihighlimits} right.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 50;
+
+	/** How {@code HttpURLConnection} reports a throttled request. */
+	private static final Pattern THROTTLED = Pattern.compile(
+		"HTTP response code: (429|503)\\b");
+
+	/** The wiki being updated, or null if not accessed via wiki-java. */
 	private final Wiki wiki;
 
+	/** The means of editing wiki pages, or null for a dry run. */
+	private final Editor editor;
+
+	/** Schedules the edits, once any is made; always null for a dry run. */
+	private volatile UploadScheduler scheduler;
+
+	/** The means of reading wiki pages, or null for a dry run. */
+	private final MediaWikiAPI api;
+
 	/** A record of which pages have been updated by this wiki updater. */
 	private final Set<String> pagesDone = new HashSet<>();
 
+	private final Metrics metrics = Metrics.shared();
+
+	/** Whether to skip edits which would not change a page. */
+	private boolean skipUnchanged = true;
+
+	/** Persistent record of what was last uploaded, or null for none. */
+	private UploadLedger ledger;
+
+	/** Whether to check ledger entries against the live revision IDs. */
+	private boolean verifyLedger;
+
+	/** Whether to skip generating pages whose inputs have not changed. */
+	private boolean incremental;
+
+	/** Number of pages edited, and skipped because they were unchanged. */
+	private int editCount, skipCount;
+
+	/** Number of pages not even generated, because they were up to date. */
+	private int upToDateCount;
+
+	/** Maximum number of pages to read from the wiki per API request. */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/** Latest revisions of the pages about to be uploaded, read in batches. */
+	private final Map<String, MediaWikiAPI.Revision> prefetched =
+		new HashMap<>();
+
+	/** Number of pages read in batches, and of requests needed to do so. */
+	private int prefetchCount, batchCount;
+
+	/** Whether to render component tables in parallel. */
+	private boolean parallel;
+
+	/** Where a dry run writes the tables, or null for {@link System#out}. */
+	private Appendable output;
+
 	public WikiUpdater(final URL url) throws IOException, FailedLoginException {
-		if (url == null) wiki = null;
+		if (url == null) {
+			wiki = null;
+			editor = null;
+			api = null;
+		}
 		else {
 			final Credentials c = new Credentials(url);
 			wiki = new Wiki(url.getHost(), url.getPath(), url.getProtocol() + "://");
 			if (c.isValid()) wiki.login(c.user, c.pass);
 			wiki.setMarkBot(true);
+			// NB: The scheduler limits the edit rate; see mwmi.editRate.
+			wiki.setThrottle(0);
+			editor = throttling(wiki::edit);
+			api = new MediaWikiAPI(url);
 		}
 	}
 
+	/** Creates a wiki updater which reads and edits pages by the given means. */
+	WikiUpdater(final MediaWikiAPI api, final Editor editor) {
+		wiki = null;
+		this.api = api;
+		this.editor = editor;
+	}
+
 	// -- WikiUpdater methods --
 
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets whether to render the tables of each index in parallel, across all
+	 * cores. If so, each table is uploaded as soon as it has been rendered, in
+	 * whichever order they finish.
+	 */
+	public void setParallel(final boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	public Appendable getOutput() {
+		return output == null ? System.out : output;
+	}
+
+	/**
+	 * Sets where a dry run writes the tables, which are streamed to it as they
+	 * are generated. By default, they are written to {@link System#out}. The
+	 * output is flushed after each update, if it is {@link Flushable}.
+	 */
+	public void setOutput(final Appendable output) {
+		this.output = output;
+	}
+
+	public boolean isSkipUnchanged() {
+		return skipUnchanged;
+	}
+
+	/**
+	 * Sets whether to compare each page's current content with its new content
+	 * before editing it, skipping the edit if nothing would change.
+	 */
+	public void setSkipUnchanged(final boolean skipUnchanged) {
+		this.skipUnchanged = skipUnchanged;
+	}
+
+	public UploadLedger getLedger() {
+		return ledger;
+	}
+
+	/**
+	 * Sets the ledger with which to recognize unchanged pages locally. Pages
+	 * whose recorded content hash matches their new content are skipped without
+	 * any request to the wiki.
+	 */
+	public void setLedger(final UploadLedger ledger) {
+		this.ledger = ledger;
+	}
+
+	public boolean isVerifyLedger() {
+		return verifyLedger;
+	}
+
+	/**
+	 * Sets whether to trust the ledger only if each page's recorded revision ID
+	 * still matches its live one, in case the page was edited by someone else.
+	 */
+	public void setVerifyLedger(final boolean verifyLedger) {
+		this.verifyLedger = verifyLedger;
+	}
+
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Sets whether to update incrementally: pages whose inputs have the same
+	 * {@link ComponentIndex#getFingerprint fingerprint} as when they were last
+	 * uploaded, according to the ledger, are not even generated. The master
+	 * table is regenerated only if any of its rows could have changed.
+	 * <p>
+	 * Incremental updates need a {@link #setLedger ledger}; without one, in a
+	 * dry run, or if unchanged pages are {@link #setSkipUnchanged not skipped},
+	 * every page is generated.
+	 * </p>
+	 */
+	public void setIncremental(final boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Sets the maximum number of pages whose current revisions are read from
+	 * the wiki with a single API request.
+	 */
+	public void setBatchSize(final int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Invalid batch size: " + batchSize);
+		}
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Gets the number of API requests saved so far, by reading the current
+	 * revisions of many pages per request, rather than one at a time.
+	 */
+	public int getRequestsSaved() {
+		return prefetchCount - batchCount;
+	}
+
+	/** Gets the scheduler with which pages are uploaded; null for a dry run. */
+	public synchronized UploadScheduler getScheduler() {
+		// NB: The default scheduler is created lazily, so that none is left
+		// running when it is replaced.
+		if (scheduler == null && editor != null) scheduler = defaultScheduler();
+		return scheduler;
+	}
+
+	/**
+	 * Sets the scheduler with which pages are uploaded. By default, pages are
+	 * uploaded one at a time, without any rate limit, retrying each failed edit
+	 * up to three times.
+	 * <p>
+	 * NB: Uploading with more than one thread at once requires an editor that
+	 * is safe for concurrent use.
+	 * </p>
+	 */
+	public synchronized void setScheduler(final UploadScheduler scheduler) {
+		if (editor == null) return; // dry run
+		if (scheduler == null) throw new NullPointerException("Null scheduler");
+		this.scheduler = scheduler;
+	}
+
+	/**
+	 * Sets the {@code maxlag} with which the wiki is accessed: while its database
+	 * replication lag exceeds this many seconds, the wiki refuses requests, and
+	 * the updater backs off.
+	 */
+	public void setMaxLag(final int maxLag) {
+		if (wiki != null) wiki.setMaxLag(maxLag);
+		if (api != null) api.setMaxLag(maxLag);
+	}
+
+	/** Gets the number of pages edited so far. */
+	public synchronized int getEditCount() {
+		return editCount;
+	}
+
+	/** Gets the number of edits skipped so far, due to unchanged content. */
+	public synchronized int getSkipCount() {
+		return skipCount;
+	}
+
+	/**
+	 * Gets the number of pages skipped so far in incremental mode, without
+	 * being generated, because their inputs were unchanged.
+	 */
+	public synchronized int getUpToDateCount() {
+		return upToDateCount;
+	}
+
+	/** Gets the number of pages which could not be uploaded. */
+	public int getFailCount() {
+		return scheduler == null ? 0 : //
+			scheduler.count(UploadScheduler.Status.FAILED);
+	}
+
 	/** Updates the wiki with the information from the associated Maven GAV. */
 	public void update(final ComponentIndex index, final boolean includeProject)
 		throws LoginException, IOException
 	{
-		final POM project = index.getProject();
+		update(Collections.singletonList(index), includeProject ? Collections
+			.singleton(index) : Collections.<ComponentIndex> emptySet());
+	}
+
+	/**
+	 * Updates the wiki with the information from several Maven GAVs at once.
+	 * <p>
+	 * The pages are planned globally before any is generated: a component listed
+	 * by several indices gets a single page, generated once, from the first
+	 * index which lists it.
+	 * </p>
+	 * 
+	 * @param indices The indices of the projects, in order of precedence.
+	 * @param includeProjects The indices whose projects also get a
+	 *          {@code ComponentStats} page of their own.
+	 */
+	public void update(final List<ComponentIndex> indices,
+		final Set<ComponentIndex> includeProjects) throws LoginException,
+		IOException
+	{
+		final List<Task> tasks = plan(indices, includeProjects);
+		try (final Metrics.Stopwatch sw = metrics.start("phase.prefetch")) {
+			prefetch(tasks);
+		}
+		try (final Metrics.Stopwatch sw = metrics.start("phase.tables")) {
+			if (parallel) updateInParallel(tasks);
+			else updateInSerial(tasks);
+		}
+		try (final Metrics.Stopwatch sw = metrics.start("phase.upload")) {
+			awaitUploads();
+		}
+		if (editor == null && getOutput() instanceof Flushable) {
+			((Flushable) getOutput()).flush();
+		}
+	}
+
+	// -- Helper methods --
+
+	/**
+	 * Lists the pages to generate from the given indices, each page once, in
+	 * order: for each index, its master table, then its component tables.
+	 */
+	private List<Task> plan(final List<ComponentIndex> indices,
+		final Set<ComponentIndex> includeProjects)
+	{
+		final Map<String, Task> tasks = new LinkedHashMap<>();
+		for (final ComponentIndex index : indices) {
+			final POMSummary project = index.getProject();
+			plan(tasks, new Task(index, "ComponentTable", project));
+			if (includeProjects.contains(index)) {
+				plan(tasks, new Task(index, "ComponentStats", project));
+			}
+			for (final POMSummary pom : index.getPOMs()) {
+				plan(tasks, new Task(index, "ComponentStats", pom));
+			}
+		}
+		return new ArrayList<>(tasks.values());
+	}
 
-		final String masterTable = index.generateMasterTable();
-		upload("ComponentTable", project, masterTable);
+	private void plan(final Map<String, Task> tasks, final Task task) {
+		final String pageName = pageName(task.base, task.pom);
+		if (tasks.containsKey(pageName)) {
+			// NB: Another project already provides this page.
+			final FlightEvents.PageUpload event = new FlightEvents.PageUpload();
+			event.begin();
+			commit(event, pageName, "duplicate", -1);
+			return;
+		}
+		tasks.put(pageName, task);
+	}
 
-		if (includeProject) {
-			final String componentTable = index.generateComponentTable(project);
-			upload("ComponentStats", project, componentTable);
+	private void updateInSerial(final List<Task> tasks) throws LoginException,
+		IOException
+	{
+		for (final Task task : tasks) {
+			final String fingerprint = fingerprint(task);
+			if (skipUpToDate(task.base, task.pom, fingerprint)) continue;
+			upload(task.base, task.pom, task.table(), fingerprint);
 		}
+	}
 
-		for (final POM pom : index.getPOMs()) {
-			final String componentTable = index.generateComponentTable(pom);
-			upload("ComponentStats", pom, componentTable);
+	/** Waits for the scheduled uploads to finish. */
+	private void awaitUploads() throws InterruptedIOException {
+		if (scheduler == null) return;
+		try {
+			scheduler.await();
+		}
+		catch (final InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while uploading");
 		}
 	}
 
-	// -- Helper methods --
+	/**
+	 * Reads the current revisions of all pages about to be uploaded, in as few
+	 * requests as possible.
+	 */
+	private void prefetch(final List<Task> tasks) {
+		if (editor == null || !skipUnchanged) return;
+
+		// NB: Pages recorded in the ledger need only their revision IDs verified,
+		// or nothing at all; the content of all other pages is needed.
+		final List<String> needContent = new ArrayList<>();
+		final List<String> needId = new ArrayList<>();
+		for (final Task task : tasks) {
+			final String pageName = pageName(task.base, task.pom);
+			if (pagesDone.contains(pageName) || prefetched.containsKey(pageName)) {
+				continue;
+			}
+			if (ledger == null || ledger.getHash(pageName) == null) {
+				needContent.add(pageName);
+			}
+			else if (verifyLedger && //
+				ledger.getRevision(pageName) != UploadLedger.UNKNOWN_REVISION)
+			{
+				needId.add(pageName);
+			}
+			else if (verifyLedger) {
+				// NB: Pages uploaded by the scheduler are recorded without their
+				// revisions, so they must be compared with the live content.
+				needContent.add(pageName);
+			}
+		}
+		prefetch(needContent, true);
+		prefetch(needId, false);
+	}
 
-	private void upload(final String base, final POM pom, final String text)
+	private void prefetch(final List<String> pageNames, final boolean content) {
+		if (pageNames.isEmpty()) return;
+		final long requests = api.getRequestCount();
+		try {
+			final Map<String, MediaWikiAPI.Revision> revisions = //
+				api.getRevisions(pageNames, content, batchSize);
+			prefetched.putAll(revisions);
+			prefetchCount += revisions.size();
+		}
+		catch (final IOException exc) {
+			// NB: Not fatal; the pages will be read one by one instead.
+			System.err.println("Cannot read pages in batches: " + exc);
+		}
+		batchCount += api.getRequestCount() - requests;
+	}
+
+	private void updateInParallel(final List<Task> tasks)
 		throws LoginException, IOException
 	{
-		final String g = pom.getGroupId();
-		final String a = pom.getArtifactId();
-		final String v = pom.getVersion();
-		final String pageName = "Template:" + base + SEP + g + SEP + a;
+		final CompletionService<Page> rendered =
+			new ExecutorCompletionService<>(ForkJoinPool.commonPool());
 
+		int count = 0;
+		for (final Task task : tasks) {
+			final String fingerprint = fingerprint(task);
+			if (skipUpToDate(task.base, task.pom, fingerprint)) continue;
+			rendered.submit(() -> new Page(task.base, task.pom, //
+				render(task.table()), fingerprint));
+			count++;
+		}
+
+		for (int i = 0; i < count; i++) {
+			final Page page = take(rendered);
+			upload(page.base, page.pom, page.text, page.fingerprint);
+		}
+	}
+
+	private Page take(final CompletionService<Page> rendered)
+		throws IOException
+	{
+		try {
+			return rendered.take().get();
+		}
+		catch (final InterruptedException exc) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while rendering");
+		}
+		catch (final ExecutionException exc) {
+			final Throwable cause = exc.getCause();
+			if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+			if (cause instanceof Error) throw (Error) cause;
+			throw new IOException(cause);
+		}
+	}
+
+	/**
+	 * Uploads the given table. In a dry run, the table is streamed straight to
+	 * the output as it is generated.
+	 */
+	private void upload(final String base, final POMSummary pom,
+		final Table table, final String fingerprint) throws LoginException,
+		IOException
+	{
+		final FlightEvents.PageUpload event = new FlightEvents.PageUpload();
+		event.begin();
+		final String pageName = pageName(base, pom);
+		if (!claim(pageName)) {
+			commit(event, pageName, "duplicate", -1);
+			return;
+		}
+		if (editor == null) {
+			// dry run
+			final Appendable out = getOutput();
+			printHeader(out, pageName);
+			out.append(AUTOGENERATED);
+			try (final Metrics.Stopwatch sw = metrics.start("render")) {
+				table.writeTo(out);
+			}
+			out.append('\n');
+			commit(event, pageName, "dry-run", -1);
+		}
+		else edit(pageName, pom, render(table), fingerprint, event);
+	}
+
+	/** Uploads the given page text, which is already rendered. */
+	private void upload(final String base, final POMSummary pom,
+		final CharSequence text, final String fingerprint) throws LoginException,
+		IOException
+	{
+		final FlightEvents.PageUpload event = new FlightEvents.PageUpload();
+		event.begin();
+		final String pageName = pageName(base, pom);
+		if (!claim(pageName)) {
+			commit(event, pageName, "duplicate", -1);
+			return;
+		}
+		if (editor == null) {
+			// dry run
+			final Appendable out = getOutput();
+			printHeader(out, pageName);
+			out.append(text).append('\n');
+			commit(event, pageName, "dry-run", text.length());
+		}
+		else edit(pageName, pom, text, fingerprint, event);
+	}
+
+	/** Marks the given page as updated, unless it already was. */
+	private boolean claim(final String pageName) {
 		if (pagesDone.contains(pageName)) {
 			System.err.println("Skipping already updated page: " + pageName);
-			return;
+			return false;
 		}
 		pagesDone.add(pageName);
+		return true;
+	}
 
-		final String textWithWarning = //
-			"<noinclude>{{Autogenerated|template}}</noinclude>" + text;
-		if (wiki == null) {
-			// dry run
-			System.out.println();
-			System.out.println("[" + pageName + "]");
-			System.out.println(textWithWarning);
+	private void printHeader(final Appendable out, final String pageName)
+		throws IOException
+	{
+		out.append("\n[").append(pageName).append("]\n");
+	}
+
+	/** Renders the given table into a single buffer, after the prefix. */
+	private StringBuilder render(final Table table) throws IOException {
+		final StringBuilder text = new StringBuilder(AUTOGENERATED);
+		try (final Metrics.Stopwatch sw = metrics.start("render")) {
+			table.writeTo(text);
 		}
-		else {
-			final String summary = "Update to " + g + ":" + a + ":" + v;
-			wiki.edit(pageName, textWithWarning, summary);
+		return text;
+	}
+
+	/**
+	 * Schedules an edit of the given page, unless it is unchanged.
+	 * 
+	 * @param fingerprint The fingerprint of the page's inputs, recorded in the
+	 *          ledger along with its content hash; null if unknown.
+	 * @param event The page's upload event, already begun; it ends once the
+	 *          edit is scheduled, and each attempt at the edit is an event of
+	 *          its own.
+	 */
+	private void edit(final String pageName, final POMSummary pom,
+		final CharSequence text, final String fingerprint,
+		final FlightEvents.PageUpload event)
+	{
+		final String hash = contentHash(text);
+		final boolean unchanged = skipUnchanged && isUnchanged(pageName, hash);
+		prefetched.remove(pageName);
+		if (unchanged) {
+			System.err.println("Skipping unchanged page: " + pageName);
+			synchronized (this) {
+				skipCount++;
+			}
+			if (ledger != null && fingerprint != null) {
+				ledger.put(pageName, hash, ledger.getRevision(pageName), fingerprint);
+			}
+			commit(event, pageName, "unchanged", text.length());
+			return;
+		}
+		// NB: The editor takes the page text as a String, so copy it just once.
+		final String content = text.toString();
+		final String summary = "Update to " + pom.getGAV();
+		commit(event, pageName, "queued", content.length());
+		getScheduler().submit(pageName, () -> {
+			final FlightEvents.PageUpload attempt = new FlightEvents.PageUpload();
+			attempt.begin();
+			String outcome = "failed";
+			try (final Metrics.Stopwatch sw = metrics.start("wiki.edit")) {
+				editor.edit(pageName, content, summary);
+				outcome = "edited";
+			}
+			finally {
+				commit(attempt, pageName, outcome, content.length());
+			}
+		}, result -> {
+			// NB: An upload's latency spans all its attempts, and any waiting.
+			metrics.record("wiki.upload", result.getLatency());
+			if (result.getStatus() == UploadScheduler.Status.FAILED) return;
+			metrics.count("wiki.edit.chars", content.length());
+			synchronized (this) {
+				editCount++;
+			}
+			if (ledger != null) {
+				ledger.put(pageName, hash, UploadLedger.UNKNOWN_REVISION,
+					fingerprint);
+			}
+		});
+	}
+
+	private static void commit(final FlightEvents.PageUpload event,
+		final String pageName, final String outcome, final long chars)
+	{
+		if (!event.shouldCommit()) return;
+		event.page = pageName;
+		event.outcome = outcome;
+		event.chars = chars;
+		event.commit();
+	}
+
+	private UploadScheduler defaultScheduler() {
+		return new UploadScheduler(1, 0, 3);
+	}
+
+	private String fingerprint(final Task task) {
+		if (!usesFingerprints()) return null;
+		return task.isMaster() ? task.index.getMasterFingerprint() : //
+			task.index.getFingerprint(task.pom);
+	}
+
+	/** Whether pages are checked for changed inputs before being generated. */
+	private boolean usesFingerprints() {
+		return incremental && ledger != null && editor != null;
+	}
+
+	/**
+	 * Skips the given page without generating it, if the ledger shows that it
+	 * was last uploaded from inputs with the same fingerprint.
+	 * 
+	 * @return True if the page was skipped.
+	 */
+	private boolean skipUpToDate(final String base, final POMSummary pom,
+		final String fingerprint)
+	{
+		// NB: Forced updates still record fingerprints, for later runs.
+		if (fingerprint == null || !skipUnchanged) return false;
+		final String pageName = pageName(base, pom);
+		if (!fingerprint.equals(ledger.getFingerprint(pageName))) return false;
+		if (verifyLedger) {
+			// NB: Unless the page is known not to have been edited since, it must
+			// be generated, to compare it with the live one.
+			final long revision = ledger.getRevision(pageName);
+			try {
+				if (revision == UploadLedger.UNKNOWN_REVISION || //
+					revision != liveRevisionId(pageName)) return false;
+			}
+			catch (final IOException exc) {
+				return false;
+			}
+		}
+		final FlightEvents.PageUpload event = new FlightEvents.PageUpload();
+		event.begin();
+		if (!claim(pageName)) return true;
+		synchronized (this) {
+			upToDateCount++;
+		}
+		commit(event, pageName, "up-to-date", -1);
+		return true;
+	}
+
+	/** Checks whether the given page already has content with the given hash. */
+	private boolean isUnchanged(final String pageName, final String hash) {
+		try {
+			if (ledger != null && hash.equals(ledger.getHash(pageName))) {
+				if (!verifyLedger) return true;
+				final long revision = ledger.getRevision(pageName);
+				if (revision != UploadLedger.UNKNOWN_REVISION && //
+					revision == liveRevisionId(pageName)) return true;
+			}
+			final MediaWikiAPI.Revision revision = liveRevision(pageName);
+			if (revision == null) return false;
+			final String liveHash = contentHash(revision.getText());
+			if (ledger != null) ledger.put(pageName, liveHash, revision.getId());
+			return liveHash.equals(hash);
+		}
+		catch (final IOException exc) {
+			System.err.println("Cannot read page " + pageName + ": " + exc);
+			return false;
+		}
+	}
+
+	/** Gets the ID of the given page's latest revision, or -1 if none. */
+	private long liveRevisionId(final String pageName) throws IOException {
+		if (!prefetched.containsKey(pageName)) return api.getRevisionId(pageName);
+		final MediaWikiAPI.Revision revision = prefetched.get(pageName);
+		return revision == null ? -1 : revision.getId();
+	}
+
+	/** Gets the given page's latest revision, including its content. */
+	private MediaWikiAPI.Revision liveRevision(final String pageName)
+		throws IOException
+	{
+		final MediaWikiAPI.Revision revision = prefetched.get(pageName);
+		if (prefetched.containsKey(pageName) && //
+			(revision == null || revision.getText() != null)) return revision;
+		return api.getRevision(pageName);
+	}
+
+	private String pageName(final String base, final POMSummary pom) {
+		return pageName(base, pom.getGroupId(), pom.getArtifactId());
+	}
+
+	private String pageName(final String base, final String g, final String a) {
+		return "Template:" + base + SEP + g + SEP + a;
+	}
+
+	/**
+	 * Wraps the given editor so that edits refused with HTTP 429 (Too Many
+	 * Requests) or 503 (Service Unavailable) fail with a
+	 * {@link ThrottledException}, pausing the {@link UploadScheduler}.
+	 * <p>
+	 * NB: wiki-java reports such responses as plain I/O errors, without the
+	 * {@code Retry-After} header, so the default delay is used.
+	 * </p>
+	 */
+	static Editor throttling(final Editor editor) {
+		return (pageName, text, summary) -> {
+			try {
+				editor.edit(pageName, text, summary);
+			}
+			catch (final ThrottledException exc) {
+				throw exc;
+			}
+			catch (final IOException exc) {
+				final String message = exc.getMessage();
+				if (message == null || !THROTTLED.matcher(message).find()) throw exc;
+				final ThrottledException throttled = new ThrottledException(message,
+					MediaWikiAPI.DEFAULT_RETRY_AFTER);
+				throttled.initCause(exc);
+				throw throttled;
+			}
+		};
+	}
+
+	/**
+	 * Computes a hash of the given page content, as MediaWiki would store it.
+	 * <p>
+	 * NB: MediaWiki strips trailing whitespace from saved pages.
+	 * </p>
+	 */
+	static String contentHash(final CharSequence text) {
+		int end = text.length();
+		while (end > 0 && Character.isWhitespace(text.charAt(end - 1))) end--;
+		try {
+			final MessageDigest sha = MessageDigest.getInstance("SHA-256");
+			// NB: Encode the text a chunk at a time, rather than copying it whole.
+			final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder() //
+				.onMalformedInput(CodingErrorAction.REPLACE) //
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			final CharBuffer in = CharBuffer.wrap(text, 0, end);
+			final ByteBuffer buffer = ByteBuffer.allocate(8192);
+			CoderResult result;
+			do {
+				result = encoder.encode(in, buffer, true);
+				if (result.isError()) result.throwException();
+				buffer.flip();
+				sha.update(buffer);
+				buffer.clear();
+			}
+			while (result.isOverflow());
+			encoder.flush(buffer);
+			buffer.flip();
+			sha.update(buffer);
+			final byte[] digest = sha.digest();
+			final StringBuilder sb = new StringBuilder();
+			for (final byte b : digest) {
+				sb.append(String.format("%02x", b & 0xff));
+			}
+			return sb.toString();
+		}
+		catch (final NoSuchAlgorithmException | CharacterCodingException exc) {
+			throw new IllegalStateException(exc);
 		}
 	}
 
 	// -- Helper classes --
 
+	/** A table which can be written to a sink. */
+	private interface Table {
+
+		void writeTo(Appendable out) throws IOException;
+	}
+
+	/** The means of editing a wiki page. */
+	interface Editor {
+
+		void edit(String pageName, String text, String summary)
+			throws IOException, LoginException;
+	}
+
+	/** A page to be generated from an index. */
+	private static class Task {
+
+		private final ComponentIndex index;
+		private final String base;
+		private final POMSummary pom;
+
+		public Task(final ComponentIndex index, final String base,
+			final POMSummary pom)
+		{
+			this.index = index;
+			this.base = base;
+			this.pom = pom;
+		}
+
+		public boolean isMaster() {
+			return base.equals("ComponentTable");
+		}
+
+		public Table table() {
+			return isMaster() ? index::writeMasterTable : //
+				out -> index.writeComponentTable(pom, out);
+		}
+	}
+
+	/** A rendered table, ready for upload. */
+	private static class Page {
+
+		private final String base;
+		private final POMSummary pom;
+		private final StringBuilder text;
+		private final String fingerprint;
+
+		public Page(final String base, final POMSummary pom,
+			final StringBuilder text, final String fingerprint)
+		{
+			this.base = base;
+			this.pom = pom;
+			this.text = text;
+			this.fingerprint = fingerprint;
+		}
+	}
+
 	private static class Credentials {
 		public String user, pass;
 
@@ -0,0 +1,172 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests {@link BatchJob}. */
+public class BatchJobTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testProjects() throws Exception {
+		final BatchJob job = job("projects = fiji, imagej\n" + //
+			"imagej.groupId = net.imagej\n" + //
+			"imagej.artifactId = imagej\n" + //
+			"imagej.version = 2.3.0\n" + //
+			"imagej.includeBase\n" + //
+			"fiji.groupId = sc.fiji\n" + //
+			"fiji.artifactId = fiji\n" + //
+			"fiji.version = 2.3.1\n" + //
+			"fiji.name = Fiji\n" + //
+			"fiji.includeBase = false\n" + //
+			"fiji.resolution = direct-or-classpath\n" + //
+			"mwmi.url = https://imagej.net/\n");
+		final List<BatchJob.Project> projects = job.getProjects();
+		assertEquals(2, projects.size());
+
+		final BatchJob.Project fiji = projects.get(0);
+		assertEquals("sc.fiji:fiji:2.3.1", fiji.getGAV());
+		assertEquals("Fiji", fiji.getName());
+		assertFalse(fiji.isIncludeBase());
+		assertEquals(ComponentIndex.Resolution.DIRECT_OR_CLASSPATH, fiji
+			.getResolution());
+
+		final BatchJob.Project imagej = projects.get(1);
+		assertEquals("net.imagej:imagej:2.3.0", imagej.getGAV());
+		assertNull(imagej.getName());
+		assertTrue(imagej.isIncludeBase());
+		assertNull(imagej.getResolution());
+
+		assertEquals("https://imagej.net/", job.getOption("mwmi.url"));
+		assertNull(job.getOption("imagej.groupId"));
+	}
+
+	@Test
+	public void testProjectNamedLikeOptions() throws Exception {
+		final BatchJob job = job("projects = mwmi\n" + //
+			"mwmi.groupId = net.imagej\n" + //
+			"mwmi.artifactId = imagej\n" + //
+			"mwmi.version = 2.3.0\n" + //
+			"mwmi.url = https://imagej.net/\n");
+		assertEquals("net.imagej:imagej:2.3.0", job.getProjects().get(0)
+			.getGAV());
+		assertEquals("https://imagej.net/", job.getOption("mwmi.url"));
+		assertNull(job.getOption("mwmi.groupId"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMissingVersion() throws Exception {
+		job("projects = imagej\n" + //
+			"imagej.groupId = net.imagej\n" + //
+			"imagej.artifactId = imagej\n");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidFlag() throws Exception {
+		job("projects = imagej\n" + //
+			"imagej.groupId = net.imagej\n" + //
+			"imagej.artifactId = imagej\n" + //
+			"imagej.version = 2.3.0\n" + //
+			"imagej.includeBase = yes\n");
+	}
+
+	@Test
+	public void testSharedPages() throws Exception {
+		final SyntheticRepository repo = new SyntheticRepository(tmp.getRoot());
+		repo.setComponents(10);
+		repo.generate();
+
+		// an application which depends on half of the BOM's components
+		final String g = SyntheticRepository.GROUP_ID;
+		final File dir = new File(repo.getRoot(), g.replace('.', '/') +
+			"/synth-app/1.0.0");
+		assertTrue(dir.mkdirs());
+		final StringBuilder xml = new StringBuilder("<project>\n" + //
+			"  <groupId>" + g + "</groupId>\n" + //
+			"  <artifactId>synth-app</artifactId>\n" + //
+			"  <version>1.0.0</version>\n" + //
+			"  <dependencies>\n");
+		for (int i = 0; i < 5; i++) {
+			xml.append("    <dependency><groupId>" + g + "</groupId>" + //
+				"<artifactId>" + SyntheticRepository.componentId(i) +
+				"</artifactId><version>" + SyntheticRepository.componentVersion(i) +
+				"</version></dependency>\n");
+		}
+		xml.append("  </dependencies>\n</project>\n");
+		Files.write(new File(dir, "synth-app-1.0.0.pom").toPath(), xml.toString()
+			.getBytes(StandardCharsets.UTF_8));
+
+		try (final MockWiki wiki = new MockWiki()) {
+			final MavenRepositories repositories = new MavenRepositories(repo
+				.getRoot());
+			final ComponentIndex bom = new ComponentIndex(g,
+				SyntheticRepository.BOM_ID, SyntheticRepository.VERSION,
+				ComponentIndex.Resolution.DIRECT, repositories);
+			bom.setBaseName("Synthetic Suite");
+			final ComponentIndex app = new ComponentIndex(g, "synth-app", "1.0.0",
+				ComponentIndex.Resolution.DIRECT, repositories);
+			app.setBaseName("Synthetic App");
+
+			final WikiUpdater wikiUpdater = new WikiUpdater(new MediaWikiAPI(wiki
+				.getURL()), wiki);
+			wikiUpdater.update(Arrays.asList(bom, app), Collections.singleton(app));
+
+			// NB: Two master tables, the app's own page, and one per component.
+			assertEquals(13, wikiUpdater.getEditCount());
+			assertEquals(13, wiki.getEditCount());
+
+			// shared pages are generated from the first project listing them
+			final String page = wiki.getPage("Template:ComponentStats:" + g + ":" +
+				SyntheticRepository.componentId(0));
+			assertTrue(page.contains("Synthetic Suite"));
+			assertFalse(page.contains("Synthetic App"));
+		}
+	}
+
+	private BatchJob job(final String text) throws Exception {
+		final Properties p = new Properties();
+		p.load(new StringReader(text));
+		return new BatchJob(p);
+	}
+
+}
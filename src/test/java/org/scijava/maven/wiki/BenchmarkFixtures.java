@@ -0,0 +1,266 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Synthetic POMs with which to benchmark the index and the updater without
+ * network access: a project whose dependencies are the given number of
+ * components, all inheriting from a common parent.
+ * <p>
+ * The content is pseudorandom but reproducible: each component has a team of
+ * developers with a mix of known and unknown roles, contributors, and a GitHub
+ * repository; about one in five declares its own license and team targets,
+ * while the rest inherit those of the parent.
+ * </p>
+ */
+final class BenchmarkFixtures {
+
+	static final String GROUP_ID = "org.example.bench";
+	static final String PARENT_ID = "bench-parent";
+	static final String PROJECT_ID = "bench-project";
+	static final String VERSION = "1.0.0";
+
+	/** Repositories of the fixture's index, under which its POMs are cached. */
+	static final MavenRepositories REPOSITORIES = new MavenRepositories();
+
+	private static final String[] ROLES = { "founder", "lead", "developer",
+		"debugger", "reviewer", "support", "maintainer", "translator",
+		"documentation" };
+
+	private static final String[] LICENSES = { "Simplified BSD License",
+		"GNU General Public License v3+", "The MIT License",
+		"Eclipse Public License - v 1.0" };
+
+	private BenchmarkFixtures() {
+		// NB: Prevent instantiation of utility class.
+	}
+
+	/**
+	 * Creates an index of a project with the given number of components. Its
+	 * POM and that of the parent are put into the {@link POMCache#shared()
+	 * shared POM cache}, so that the index finds them there.
+	 */
+	static ComponentIndex index(final int components) throws IOException {
+		return index(components(components));
+	}
+
+	/**
+	 * Creates an index of a project whose dependencies are the given
+	 * components, as {@link #components parsed} beforehand.
+	 */
+	static ComponentIndex index(final List<POMSummary> components)
+		throws IOException
+	{
+		final POMCache cache = POMCache.shared();
+		cache.put(REPOSITORIES.cacheKey(gav(PARENT_ID, VERSION)), parse(
+			parentXML()));
+		cache.put(REPOSITORIES.cacheKey(gav(PROJECT_ID, VERSION)), parse(
+			projectXML(components.size())));
+		return new ComponentIndex(GROUP_ID, PROJECT_ID, VERSION,
+			ComponentIndex.Resolution.CLASSPATH, () -> components, null,
+			REPOSITORIES);
+	}
+
+	/** Parses the POMs of the given number of components. */
+	static List<POMSummary> components(final int count) throws IOException {
+		final List<POMSummary> poms = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			poms.add(parse(componentXML(i)));
+		}
+		return poms;
+	}
+
+	static POMSummary parse(final String xml) throws IOException {
+		return POMSummary.read(new ByteArrayInputStream(xml.getBytes(
+			StandardCharsets.UTF_8)), null);
+	}
+
+	static String parentXML() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+		sb.append("  <modelVersion>4.0.0</modelVersion>\n");
+		element(sb, 1, "groupId", GROUP_ID);
+		element(sb, 1, "artifactId", PARENT_ID);
+		element(sb, 1, "version", VERSION);
+		element(sb, 1, "packaging", "pom");
+		element(sb, 1, "name", "Benchmark Parent");
+		licenses(sb, LICENSES[0]);
+		sb.append("  <developers>\n");
+		person(sb, "developer", "parent-lead", "Parent Lead", "lead", "support");
+		sb.append("  </developers>\n");
+		sb.append("  <properties>\n");
+		element(sb, 2, "scijava.team.leads", "1");
+		element(sb, 2, "scijava.team.developers", "2");
+		element(sb, 2, "scijava.team.support", "1");
+		element(sb, 2, "project.build.sourceEncoding", "UTF-8");
+		sb.append("  </properties>\n");
+		sb.append("</project>\n");
+		return sb.toString();
+	}
+
+	static String projectXML(final int components) {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+		sb.append("  <modelVersion>4.0.0</modelVersion>\n");
+		parent(sb);
+		element(sb, 1, "artifactId", PROJECT_ID);
+		element(sb, 1, "name", "Benchmark Project");
+		sb.append("  <dependencies>\n");
+		for (int i = 0; i < components; i++) {
+			sb.append("    <dependency>\n");
+			element(sb, 3, "groupId", GROUP_ID);
+			element(sb, 3, "artifactId", componentId(i));
+			element(sb, 3, "version", componentVersion(i));
+			sb.append("    </dependency>\n");
+		}
+		sb.append("  </dependencies>\n");
+		sb.append("</project>\n");
+		return sb.toString();
+	}
+
+	static String componentXML(final int i) {
+		final Random r = new Random(i);
+		final String a = componentId(i);
+		final StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+		sb.append("  <modelVersion>4.0.0</modelVersion>\n");
+		parent(sb);
+		element(sb, 1, "artifactId", a);
+		element(sb, 1, "version", componentVersion(i));
+		element(sb, 1, "name", "Component " + i);
+		element(sb, 1, "description", "Synthetic component number " + i +
+			", for benchmarking.");
+		element(sb, 1, "url", "https://example.org/" + a);
+		final boolean own = i % 5 == 0;
+		if (own) licenses(sb, LICENSES[r.nextInt(LICENSES.length)]);
+		sb.append("  <developers>\n");
+		final int devCount = 3 + r.nextInt(6);
+		for (int d = 0; d < devCount; d++) {
+			final int roleCount = 1 + r.nextInt(3);
+			final String[] roles = new String[roleCount];
+			for (int k = 0; k < roleCount; k++) {
+				roles[k] = ROLES[r.nextInt(ROLES.length)];
+			}
+			final int id = r.nextInt(200);
+			person(sb, "developer", "dev" + id, "Developer " + id, roles);
+		}
+		sb.append("  </developers>\n");
+		sb.append("  <contributors>\n");
+		final int contribCount = r.nextInt(4);
+		for (int c = 0; c < contribCount; c++) {
+			final int id = r.nextInt(500);
+			person(sb, "contributor", c % 2 == 0 ? "contrib" + id : null,
+				"Contributor " + id, c == 0 ? "founder" : "translator");
+		}
+		sb.append("  </contributors>\n");
+		sb.append("  <scm>\n");
+		element(sb, 2, "url", "https://github.com/example/" + a);
+		element(sb, 2, "tag", own ? a + "-" + componentVersion(i) : "HEAD");
+		sb.append("  </scm>\n");
+		sb.append("  <properties>\n");
+		if (own) {
+			element(sb, 2, "scijava.team.leads", "2");
+			element(sb, 2, "scijava.team.debuggers", "1");
+		}
+		if (i % 17 == 0) element(sb, 2, "scijava.obsolete", "true");
+		element(sb, 2, "license.licenseName", "bsd_2");
+		sb.append("  </properties>\n");
+		sb.append("</project>\n");
+		return sb.toString();
+	}
+
+	static String componentId(final int i) {
+		return "component-" + i;
+	}
+
+	static String componentVersion(final int i) {
+		return (i % 3) + "." + (i % 7) + "." + (i % 11);
+	}
+
+	// -- Helper methods --
+
+	private static String gav(final String a, final String v) {
+		return GROUP_ID + ":" + a + ":" + v;
+	}
+
+	private static void parent(final StringBuilder sb) {
+		sb.append("  <parent>\n");
+		element(sb, 2, "groupId", GROUP_ID);
+		element(sb, 2, "artifactId", PARENT_ID);
+		element(sb, 2, "version", VERSION);
+		sb.append("  </parent>\n");
+	}
+
+	private static void licenses(final StringBuilder sb, final String name) {
+		sb.append("  <licenses>\n");
+		sb.append("    <license>\n");
+		element(sb, 3, "name", name);
+		element(sb, 3, "url", "https://example.org/licenses/" + //
+			name.replace(' ', '_'));
+		sb.append("    </license>\n");
+		sb.append("  </licenses>\n");
+	}
+
+	private static void person(final StringBuilder sb, final String tag,
+		final String id, final String name, final String... roles)
+	{
+		sb.append("    <").append(tag).append(">\n");
+		if (id != null) {
+			if (tag.equals("developer")) element(sb, 3, "id", id);
+			else {
+				sb.append("      <properties>\n");
+				element(sb, 4, "id", id);
+				sb.append("      </properties>\n");
+			}
+		}
+		element(sb, 3, "name", name);
+		sb.append("      <roles>\n");
+		for (final String role : roles) {
+			element(sb, 4, "role", role);
+		}
+		sb.append("      </roles>\n");
+		sb.append("    </").append(tag).append(">\n");
+	}
+
+	private static void element(final StringBuilder sb, final int depth,
+		final String name, final String value)
+	{
+		for (int i = 0; i < depth; i++) {
+			sb.append("  ");
+		}
+		sb.append('<').append(name).append('>').append(value);
+		sb.append("</").append(name).append(">\n");
+	}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the hot paths of {@link ComponentIndex} for projects of 10, 100 and
+ * 1000 {@link BenchmarkFixtures synthetic} components, without network access:
+ * <ul>
+ * <li>{@code index}: building a fresh index of the (already parsed) component
+ * POMs, which finds the project's POM and its parent in the POM cache, then
+ * resolving each component's metadata (licenses, team and properties
+ * inherited along its parent chain).</li>
+ * <li>{@code masterTable}: rendering the master table.</li>
+ * <li>{@code componentTables}: rendering every component's table, including
+ * the indexing of its team by role and the linking of its licenses.</li>
+ * </ul>
+ * The tables are rendered from metadata already resolved during setup.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Djmh.include=ComponentIndex}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentIndexBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int components;
+
+	private List<POMSummary> poms;
+
+	private ComponentIndex index;
+
+	@Setup
+	public void setUp() throws IOException {
+		poms = BenchmarkFixtures.components(components);
+		index = BenchmarkFixtures.index(poms);
+		index.generateMasterTable();
+	}
+
+	@Benchmark
+	public void index(final Blackhole bh) throws IOException {
+		final ComponentIndex fresh = BenchmarkFixtures.index(poms);
+		for (final POMSummary pom : fresh.getPOMs()) {
+			bh.consume(fresh.getMetadata(pom));
+		}
+	}
+
+	@Benchmark
+	public String masterTable() {
+		return index.generateMasterTable();
+	}
+
+	@Benchmark
+	public void componentTables(final Blackhole bh) {
+		for (final POMSummary pom : index.getPOMs()) {
+			bh.consume(index.generateComponentTable(pom));
+		}
+	}
+
+}
@@ -30,7 +30,6 @@ import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
-import org.scijava.util.POM;
 
 /** Tests {@link ComponentIndex}. */
 public class ComponentIndexTest {
@@ -49,22 +48,60 @@ public class ComponentIndexTest {
 		// above, and that the surefire-maven-plugin does not itself have any
 		// dependencies on ch.qos.logback:logback-classic or its dependencies.
 
-		final POM pom0 = index.getPOMs().get(0);
+		final POMSummary pom0 = index.getPOMs().get(0);
 		assertEquals("javax.servlet", pom0.getGroupId());
 		assertEquals("javax.servlet-api", pom0.getArtifactId());
 		assertEquals("3.1.0", pom0.getVersion());
 
-		final POM pom1 = index.getPOMs().get(1);
+		final POMSummary pom1 = index.getPOMs().get(1);
 		assertEquals("ch.qos.logback", pom1.getGroupId());
 		assertEquals("logback-core", pom1.getArtifactId());
 		assertEquals("1.2.3", pom1.getVersion());
 
-		final POM pom2 = index.getPOMs().get(2);
+		final POMSummary pom2 = index.getPOMs().get(2);
 		assertEquals("org.slf4j", pom2.getGroupId());
 		assertEquals("slf4j-api", pom2.getArtifactId());
 		assertEquals("1.7.25", pom2.getVersion());
 	}
 
+	@Test
+	public void testDirectResolution() throws Exception {
+		final ComponentIndex direct = new ComponentIndex("ch.qos.logback",
+			"logback-classic", "1.2.3", ComponentIndex.Resolution.DIRECT);
+
+		// NB: Test-scoped and optional dependencies are left out. The version of
+		// logback-core is managed by the parent, and that of slf4j-api is given
+		// by a property of the parent.
+		final List<POMSummary> poms = direct.getPOMs();
+		assertEquals(2, poms.size());
+		assertEquals("ch.qos.logback:logback-core:1.2.3", poms.get(0).getGAV());
+		assertEquals("org.slf4j:slf4j-api:1.7.25", poms.get(1).getGAV());
+		assertEquals(index.generateComponentTable(index.getPOMs().get(1)), //
+			direct.generateComponentTable(poms.get(0)));
+	}
+
+	@Test
+	public void testTransitiveResolution() throws Exception {
+		final ComponentIndex transitive = new ComponentIndex("ch.qos.logback",
+			"logback-classic", "1.2.3", DependencyGraph.UNLIMITED,
+			ComponentIndex.DEFAULT_SCOPES);
+
+		// NB: The dependencies of logback-core and slf4j-api are all optional or
+		// of test or provided scope, so the graph goes no deeper.
+		final List<POMSummary> poms = transitive.getPOMs();
+		assertEquals(2, poms.size());
+		assertEquals("ch.qos.logback:logback-core:1.2.3", poms.get(0).getGAV());
+		assertEquals("org.slf4j:slf4j-api:1.7.25", poms.get(1).getGAV());
+		final DependencyGraph graph = transitive.getGraph();
+		assertEquals(3, graph.size());
+		assertEquals(1, graph.getDepth(graph.indexOf("org.slf4j:slf4j-api")));
+
+		final String[] table = transitive.generateComponentTable(poms.get(0))
+			.split("\\n");
+		assertEquals("| depth = 1", table[2]);
+		assertEquals("| path = logback-classic > logback-core", table[3]);
+	}
+
 	@Test
 	public void testGetBaseName() {
 		final String baseName = index.getBaseName();
@@ -110,7 +147,7 @@ public class ComponentIndexTest {
 
 	@Test
 	public void testGenerateComponentTable() {
-		final List<POM> poms = index.getPOMs();
+		final List<POMSummary> poms = index.getPOMs();
 		assertEquals(3, poms.size());
 
 		final String[] javaxServletApi = { //
@@ -0,0 +1,142 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/** Tests {@link DependencyGraph}. */
+public class DependencyGraphTest {
+
+	/**
+	 * A diamond with a tail and a cycle: {@code app} depends on {@code a} and
+	 * {@code b}, which both depend on {@code c}, which depends on {@code d} and
+	 * back on {@code app}.
+	 */
+	private final Map<String, String[]> deps = new HashMap<>();
+	{
+		deps.put("app", new String[] { "a", "b" });
+		deps.put("a", new String[] { "c" });
+		deps.put("b", new String[] { "c", "a" });
+		deps.put("c", new String[] { "d", "app" });
+		deps.put("d", new String[0]);
+	}
+
+	@Test
+	public void testExpand() throws Exception {
+		final AtomicInteger expansions = new AtomicInteger();
+		final DependencyGraph graph = DependencyGraph.expand(pom("app"),
+			DependencyGraph.UNLIMITED, (pom, depth) -> {
+				expansions.incrementAndGet();
+				return poms(pom.getArtifactId());
+			}, null);
+
+		assertEquals(5, graph.size());
+		assertEquals(5, expansions.get());
+		final String[] order = { "app", "a", "b", "c", "d" };
+		final int[] depths = { 0, 1, 1, 2, 3 };
+		for (int id = 0; id < order.length; id++) {
+			assertEquals(order[id], graph.getPOM(id).getArtifactId());
+			assertEquals(depths[id], graph.getDepth(id));
+			assertEquals(id, graph.indexOf("org.example:" + order[id]));
+		}
+		assertEquals(-1, graph.indexOf("org.example:e"));
+
+		// NB: c is reached first via a, which is declared before b.
+		assertArrayEquals(new int[] { 0, 1, 3, 4 }, graph.getPath(4));
+		assertEquals(1, graph.getVia(3));
+		assertArrayEquals(new int[] { 3, 1 }, graph.getDependencies(2));
+		// NB: The dependency back on the project is not an edge.
+		assertArrayEquals(new int[] { 4 }, graph.getDependencies(3));
+	}
+
+	@Test
+	public void testMaxDepth() throws Exception {
+		final DependencyGraph graph = DependencyGraph.expand(pom("app"), 2,
+			(pom, depth) -> poms(pom.getArtifactId()), null);
+
+		assertEquals(4, graph.size());
+		assertEquals(-1, graph.indexOf("org.example:d"));
+		assertArrayEquals(new int[0], graph.getDependencies(3));
+	}
+
+	@Test
+	public void testConcurrentExpansion() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final Map<String, Integer> expansions = new ConcurrentHashMap<>();
+			final DependencyGraph graph = DependencyGraph.expand(pom("app"),
+				DependencyGraph.UNLIMITED, (pom, depth) -> {
+					expansions.merge(pom.getArtifactId(), 1, Integer::sum);
+					if (pom.getArtifactId().equals("b")) throw new IOException("b");
+					return poms(pom.getArtifactId());
+				}, executor);
+
+			// NB: The failure to expand b leaves b in the graph, without edges.
+			assertEquals(5, graph.size());
+			assertEquals(5, expansions.size());
+			for (final int count : expansions.values()) {
+				assertEquals(1, count);
+			}
+			assertArrayEquals(new int[0], graph.getDependencies(2));
+			assertEquals("c", graph.getPOM(3).getArtifactId());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private List<POMSummary> poms(final String a) throws IOException {
+		final List<POMSummary> poms = new ArrayList<>();
+		for (final String dep : deps.get(a)) {
+			poms.add(pom(dep));
+		}
+		return poms;
+	}
+
+	private POMSummary pom(final String a) throws IOException {
+		final String xml = "<project>" + //
+			"<groupId>org.example</groupId>" + //
+			"<artifactId>" + a + "</artifactId>" + //
+			"<version>1.0.0</version>" + //
+			"</project>";
+		return POMSummary.read(new ByteArrayInputStream(xml.getBytes(
+			StandardCharsets.UTF_8)), null);
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests {@link FlightEvents}. */
+public class FlightEventsTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testEvents() throws Exception {
+		final SyntheticRepository repo = //
+			new SyntheticRepository(tmp.newFolder());
+		repo.setComponents(3);
+		repo.generate();
+
+		final File file = new File(tmp.getRoot(), "events.jfr");
+		try (final Recording recording = new Recording()) {
+			recording.enable(FlightEvents.POMFetch.class).withThreshold(null);
+			recording.enable(FlightEvents.TableRender.class).withThreshold(null);
+			recording.enable(FlightEvents.PageUpload.class).withThreshold(null);
+			recording.start();
+			final ComponentIndex index = new ComponentIndex(
+				SyntheticRepository.GROUP_ID, SyntheticRepository.BOM_ID,
+				SyntheticRepository.VERSION, ComponentIndex.Resolution.DIRECT,
+				POMSummary::getAllPOMs, null, new MavenRepositories(repo
+					.getRoot()));
+			final String table = index.generateMasterTable();
+			final WikiUpdater wikiUpdater = new WikiUpdater(null);
+			wikiUpdater.setOutput(new StringBuilder());
+			wikiUpdater.update(index, false);
+			recording.stop();
+			recording.dump(file.toPath());
+
+			final Map<String, Integer> counts = new HashMap<>();
+			for (final RecordedEvent event : RecordingFile.readAllEvents(file
+				.toPath()))
+			{
+				final String name = event.getEventType().getName();
+				counts.merge(name, 1, Integer::sum);
+				if (name.endsWith("TableRender") && //
+					"master".equals(event.getString("table")))
+				{
+					assertEquals(table.length(), event.getLong("chars"));
+				}
+				if (name.endsWith("POMFetch")) {
+					assertEquals("local", event.getString("source"));
+					assertTrue(event.getLong("bytes") > 0);
+				}
+				if (name.endsWith("PageUpload")) {
+					assertEquals("dry-run", event.getString("outcome"));
+				}
+			}
+			// NB: The BOM, its three components and their three parents.
+			assertEquals(7, (int) counts.get("org.scijava.maven.wiki.POMFetch"));
+			assertEquals(5, (int) counts.get(
+				"org.scijava.maven.wiki.TableRender"));
+			assertEquals(4, (int) counts.get("org.scijava.maven.wiki.PageUpload"));
+		}
+	}
+
+}
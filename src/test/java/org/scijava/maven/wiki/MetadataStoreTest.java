@@ -0,0 +1,140 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests {@link MetadataStore}. */
+public class MetadataStoreTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		final File dir = tmp.newFolder();
+
+		final MetadataStore coldStore = new MetadataStore(dir);
+		final ComponentIndex cold = index(coldStore);
+		final String coldMaster = cold.generateMasterTable();
+		final List<POMSummary> poms = cold.getPOMs();
+		assertEquals(0, coldStore.getHits());
+		assertEquals(poms.size(), coldStore.getWrites());
+
+		final MetadataStore warmStore = new MetadataStore(dir);
+		final ComponentIndex warm = index(warmStore);
+		assertEquals(coldMaster, warm.generateMasterTable());
+		for (final POMSummary pom : poms) {
+			assertNotSame(cold.getMetadata(pom), warm.getMetadata(pom));
+			assertEquals(cold.generateComponentTable(pom), //
+				warm.generateComponentTable(pom));
+		}
+		assertEquals(poms.size(), warmStore.getHits());
+		assertEquals(0, warmStore.getWrites());
+	}
+
+	@Test
+	public void testLateReleaseDate() throws Exception {
+		final SyntheticRepository repo = new SyntheticRepository(tmp.getRoot());
+		repo.setComponents(1);
+		repo.generate();
+		final String a = SyntheticRepository.componentId(0);
+		final String v = SyntheticRepository.componentVersion(0);
+		final File jar = new File(repo.getRoot(), SyntheticRepository.GROUP_ID
+			.replace('.', '/') + "/" + a + "/" + v + "/" + a + "-" + v + ".jar");
+		final File hidden = new File(jar.getPath() + ".bak");
+		assertTrue(jar.renameTo(hidden));
+
+		final MavenRepositories repositories = //
+			new MavenRepositories(repo.getRoot());
+		try {
+			ReleaseDates.shared().clear();
+			final MetadataStore store = new MetadataStore(tmp.newFolder());
+			final ComponentIndex cold = synthetic(repositories, store);
+			final POMSummary pom = cold.getPOMs().get(0);
+			assertNull(cold.getMetadata(pom).getReleaseDate());
+			assertEquals(1, store.getWrites());
+
+			// once the JAR is there, its date is found despite the stored entry
+			assertTrue(hidden.renameTo(jar));
+			ReleaseDates.shared().clear();
+			final ComponentIndex warm = synthetic(repositories, store);
+			assertEquals(SyntheticRepository.releaseDate(0), warm.getMetadata(pom)
+				.getReleaseDate().getTime());
+			assertEquals(1, store.getHits());
+		}
+		finally {
+			ReleaseDates.shared().clear();
+		}
+	}
+
+	@Test
+	public void testWarmRunSkipsParents() throws Exception {
+		final SyntheticRepository repo = new SyntheticRepository(tmp.getRoot());
+		repo.setComponents(10);
+		repo.generate();
+		final MavenRepositories repositories = //
+			new MavenRepositories(repo.getRoot());
+		final MetadataStore store = new MetadataStore(tmp.newFolder());
+		synthetic(repositories, store).generateMasterTable();
+		assertEquals(10, store.getWrites());
+
+		// the BOM and the components are read again, but none of their parents
+		POMCache.shared().clear();
+		final Metrics metrics = Metrics.shared();
+		final long before = metrics.getCount("pom.local");
+		synthetic(repositories, store).generateMasterTable();
+		assertEquals(1 + 10, metrics.getCount("pom.local") - before);
+		assertEquals(10, store.getHits());
+	}
+
+	private ComponentIndex synthetic(final MavenRepositories repositories,
+		final MetadataStore store) throws Exception
+	{
+		final ComponentIndex index = new ComponentIndex(
+			SyntheticRepository.GROUP_ID, SyntheticRepository.BOM_ID,
+			SyntheticRepository.VERSION, ComponentIndex.Resolution.DIRECT,
+			repositories);
+		index.setMetadataStore(store);
+		return index;
+	}
+
+	private ComponentIndex index(final MetadataStore store) throws Exception {
+		final ComponentIndex index = //
+			new ComponentIndex("ch.qos.logback", "logback-classic", "1.2.3");
+		index.setMetadataStore(store);
+		return index;
+	}
+
+}
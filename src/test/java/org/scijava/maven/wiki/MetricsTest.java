@@ -0,0 +1,96 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+import org.junit.Test;
+
+/** Tests {@link Metrics}. */
+public class MetricsTest {
+
+	@Test
+	public void testTimers() {
+		final Metrics metrics = new Metrics();
+		metrics.record("op", 1000000);
+		metrics.record("op", 3000000);
+		try (final Metrics.Stopwatch sw = metrics.start("op")) {
+			// NB: Nothing to time.
+		}
+		assertEquals(3, metrics.getCount("op"));
+		assertTrue(metrics.getTotal("op") >= 4000000);
+		assertEquals(0, metrics.getCount("other"));
+	}
+
+	@Test
+	public void testCounters() throws Exception {
+		final Metrics metrics = new Metrics();
+		metrics.count("items", 2);
+		metrics.count("items", 3);
+		assertEquals(5, metrics.getCounter("items"));
+
+		final byte[] data = new byte[1000];
+		try (final InputStream in = metrics.count("bytes",
+			new ByteArrayInputStream(data)))
+		{
+			in.read();
+			while (in.read(new byte[64]) >= 0) {
+				// NB: Read everything.
+			}
+		}
+		assertEquals(1000, metrics.getCounter("bytes"));
+	}
+
+	@Test
+	public void testJSON() throws Exception {
+		final Metrics metrics = new Metrics();
+		final StringBuilder empty = new StringBuilder();
+		metrics.writeJSON(empty);
+		assertTrue(empty.toString().contains("\"timers\": {},\n"));
+		assertTrue(empty.toString().contains("\"caches\": {}\n"));
+
+		for (int i = 0; i < 99; i++) {
+			metrics.record("pom.local", 1500000); // 1.5 ms
+		}
+		metrics.record("pom.local", 40000000); // 40 ms
+		metrics.count("pom.local.bytes", 12345);
+		metrics.cache("pomCache", 3, 1);
+		final StringBuilder json = new StringBuilder();
+		metrics.writeJSON(json);
+		final String s = json.toString();
+		// NB: Percentiles are the upper bounds of their buckets: 2048 us.
+		assertTrue(s, s.contains("\"pom.local\": {\"count\": 100, " +
+			"\"totalMs\": 188.500, \"minMs\": 1.500, \"maxMs\": 40.000, " +
+			"\"meanMs\": 1.885, \"p50Ms\": 2.048, \"p90Ms\": 2.048, " +
+			"\"p99Ms\": 2.048, \"histogramUs\": {\"2048\": 99, \"65536\": 1}}"));
+		assertTrue(s, s.contains("\"pom.local.bytes\": 12345"));
+		assertTrue(s, s.contains("\"pomCache\": {\"hits\": 3, \"misses\": 1, " +
+			"\"hitRate\": 0.7500}"));
+	}
+
+}
@@ -0,0 +1,213 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.File;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests {@link MissingPOMs}. */
+public class MissingPOMsTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testTTL() {
+		final MissingPOMs missingPOMs = new MissingPOMs();
+		assertFalse(missingPOMs.isMissing("org.example:a:1.0"));
+		missingPOMs.add("org.example:a:1.0");
+		assertTrue(missingPOMs.isMissing("org.example:a:1.0"));
+		assertEquals(1, missingPOMs.getHits());
+
+		// expired misses are asked for again
+		missingPOMs.setTTL(0);
+		assertFalse(missingPOMs.isMissing("org.example:a:1.0"));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		final MissingPOMs missingPOMs = new MissingPOMs();
+		missingPOMs.add("org.example:a:1.0");
+		final File file = new File(tmp.getRoot(), "missing.properties");
+		missingPOMs.save(file);
+
+		final MissingPOMs loaded = new MissingPOMs();
+		loaded.load(file);
+		assertEquals(1, loaded.size());
+		assertTrue(loaded.getMissedGAVs().isEmpty());
+		assertTrue(loaded.isMissing("org.example:a:1.0"));
+		assertEquals(Collections.singletonList("org.example:a:1.0"), loaded
+			.getMissedGAVs());
+
+		// expired misses are not loaded
+		final MissingPOMs expired = new MissingPOMs();
+		expired.setTTL(0);
+		expired.load(file);
+		assertEquals(0, expired.size());
+	}
+
+	@Test
+	public void testMissingParent() throws Exception {
+		final File repo = tmp.newFolder("repository");
+		final String parent = "<parent><groupId>org.example</groupId>" + //
+			"<artifactId>gone</artifactId><version>1.0</version></parent>\n";
+		install(repo, "app", "<project>\n" + parent + //
+			"  <groupId>org.example</groupId>\n" + //
+			"  <artifactId>app</artifactId>\n" + //
+			"  <version>1.0</version>\n" + //
+			"  <dependencies>\n" + //
+			"    <dependency><groupId>org.example</groupId>" + //
+			"<artifactId>lib</artifactId><version>1.0</version></dependency>\n" + //
+			"    <dependency><groupId>org.example</groupId>" + //
+			"<artifactId>absent</artifactId><version>1.0</version></dependency>\n" +
+			"  </dependencies>\n</project>\n");
+		install(repo, "lib", "<project>\n" + parent + //
+			"  <groupId>org.example</groupId>\n" + //
+			"  <artifactId>lib</artifactId>\n" + //
+			"  <version>1.0</version>\n" + //
+			"  <name>Lib</name>\n</project>\n");
+
+		// a remote repository which has nothing
+		final Map<String, AtomicInteger> requests = new ConcurrentHashMap<>();
+		final HttpServer server = HttpServer.create(new InetSocketAddress(
+			"localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			requests.computeIfAbsent(exchange.getRequestURI().getPath(),
+				path -> new AtomicInteger()).incrementAndGet();
+			exchange.sendResponseHeaders(404, -1);
+			exchange.close();
+		});
+		server.start();
+
+		final MissingPOMs missingPOMs = MissingPOMs.shared();
+		try {
+			missingPOMs.clear();
+			final MavenRepositories repositories = new MavenRepositories(repo,
+				new RepositoryMirrors(new RemoteRepository("http://localhost:" +
+					server.getAddress().getPort() + "/")));
+			final ComponentIndex index = new ComponentIndex("org.example", "app",
+				"1.0", ComponentIndex.Resolution.DIRECT, repositories);
+
+			// the run continues without the missing POMs
+			assertEquals(1, index.getPOMs().size());
+			final POMSummary lib = index.getPOMs().get(0);
+			assertEquals("Lib", index.getMetadata(lib).getName());
+			assertTrue(index.generateMasterTable().contains("lib"));
+
+			// each missing POM is requested once, and reported once
+			assertEquals(1, requests.get("/org/example/gone/1.0/gone-1.0.pom")
+				.get());
+			assertEquals(1, requests.get("/org/example/absent/1.0/absent-1.0.pom")
+				.get());
+			assertEquals("[org.example:absent:1.0, org.example:gone:1.0]",
+				missingPOMs.getMissedGAVs().toString());
+
+			// later lookups fail fast, even once the POM cache is cleared
+			POMCache.shared().clear();
+			new ComponentIndex("org.example", "app", "1.0",
+				ComponentIndex.Resolution.DIRECT, repositories);
+			assertEquals(1, requests.get("/org/example/gone/1.0/gone-1.0.pom")
+				.get());
+			assertTrue(missingPOMs.getHits() > 0);
+		}
+		finally {
+			server.stop(0);
+			missingPOMs.clear();
+		}
+	}
+
+	@Test
+	public void testUnreadableParent() throws Exception {
+		final File repo = tmp.newFolder("repository");
+		install(repo, "lib", "<project>\n" + //
+			"  <parent><groupId>org.example</groupId>" + //
+			"<artifactId>broken</artifactId><version>1.0</version></parent>\n" + //
+			"  <groupId>org.example</groupId>\n" + //
+			"  <artifactId>lib</artifactId>\n" + //
+			"  <version>1.0</version>\n" + //
+			"  <name>Lib</name>\n</project>\n");
+
+		// a remote repository which fails
+		final HttpServer server = HttpServer.create(new InetSocketAddress(
+			"localhost", 0), 0);
+		server.createContext("/", exchange -> {
+			exchange.sendResponseHeaders(500, -1);
+			exchange.close();
+		});
+		server.start();
+
+		final MissingPOMs missingPOMs = MissingPOMs.shared();
+		try {
+			missingPOMs.clear();
+			final MavenRepositories repositories = new MavenRepositories(repo,
+				new RepositoryMirrors(new RemoteRepository("http://localhost:" +
+					server.getAddress().getPort() + "/")));
+			final ComponentIndex index = new ComponentIndex("org.example", "lib",
+				"1.0", ComponentIndex.Resolution.DIRECT, repositories);
+
+			// the unreadable parent is skipped, and reported with its error
+			assertEquals("Lib", index.getMetadata(index.getProject()).getName());
+			assertEquals(Collections.singletonList("org.example:broken:1.0"),
+				missingPOMs.getMissedGAVs());
+			assertNotNull(missingPOMs.getError("org.example:broken:1.0"));
+
+			// but not remembered, since the error may be transient
+			assertEquals(0, missingPOMs.size());
+			assertFalse(missingPOMs.isMissing("org.example:broken:1.0"));
+		}
+		finally {
+			server.stop(0);
+			missingPOMs.clear();
+		}
+	}
+
+	// -- Helper methods --
+
+	private static void install(final File repo, final String a,
+		final String xml) throws Exception
+	{
+		final File dir = new File(repo, "org/example/" + a + "/1.0");
+		assertTrue(dir.mkdirs());
+		Files.write(new File(dir, a + "-1.0.pom").toPath(), xml.getBytes(
+			StandardCharsets.UTF_8));
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A stand-in MediaWiki server for tests, serving just enough of the action API
+ * for {@link MediaWikiAPI}, and editing its pages directly as a
+ * {@link WikiUpdater.Editor}.
+ */
+public class MockWiki implements WikiUpdater.Editor, AutoCloseable {
+
+	private final HttpServer server;
+
+	private final Map<String, String> pages = new HashMap<>();
+	private final Map<String, Long> revisions = new HashMap<>();
+	private long lastRevision;
+	private int requestCount, editCount;
+
+	public MockWiki() throws IOException {
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/w/api.php", this::handle);
+		server.start();
+	}
+
+	// -- MockWiki methods --
+
+	/** Gets the base URL of the wiki. */
+	public URL getURL() throws IOException {
+		return new URL("http://localhost:" + server.getAddress().getPort() +
+			"/w/");
+	}
+
+	public synchronized String getPage(final String title) {
+		return pages.get(title);
+	}
+
+	/** Sets a page's content directly, as a human editor might. */
+	public synchronized void setPage(final String title, final String text) {
+		// NB: MediaWiki strips trailing whitespace.
+		pages.put(title, text.replaceAll("\\s+$", ""));
+		revisions.put(title, ++lastRevision);
+	}
+
+	/** Gets the number of API requests served. */
+	public synchronized int getRequestCount() {
+		return requestCount;
+	}
+
+	/** Gets the number of edits made via {@link #edit}. */
+	public synchronized int getEditCount() {
+		return editCount;
+	}
+
+	// -- Editor methods --
+
+	@Override
+	public synchronized void edit(final String pageName, final String text,
+		final String summary)
+	{
+		setPage(pageName, text);
+		editCount++;
+	}
+
+	// -- AutoCloseable methods --
+
+	@Override
+	public void close() {
+		server.stop(0);
+	}
+
+	// -- Helper methods --
+
+	private void handle(final HttpExchange exchange) throws IOException {
+		final Map<String, String> params = params(exchange.getRequestURI()
+			.getRawQuery());
+		final StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\"?><api><query><pages>");
+		synchronized (this) {
+			requestCount++;
+			for (final String title : params.get("titles").split("\\|")) {
+				final String text = pages.get(title);
+				if (text == null) {
+					sb.append("<page ns=\"10\" title=\"" + escape(title) +
+						"\" missing=\"\" />");
+					continue;
+				}
+				sb.append("<page ns=\"10\" title=\"" + escape(title) + "\">");
+				sb.append("<revisions><rev revid=\"" + revisions.get(title) +
+					"\" xml:space=\"preserve\">" + escape(text) + "</rev></revisions>");
+				sb.append("</page>");
+			}
+		}
+		sb.append("</pages></query></api>");
+		final byte[] response = sb.toString().getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/xml");
+		exchange.sendResponseHeaders(200, response.length);
+		try (final OutputStream out = exchange.getResponseBody()) {
+			out.write(response);
+		}
+	}
+
+	private Map<String, String> params(final String query) throws IOException {
+		final Map<String, String> params = new HashMap<>();
+		for (final String param : query.split("&")) {
+			final int equals = param.indexOf('=');
+			params.put(URLDecoder.decode(param.substring(0, equals), "UTF-8"),
+				URLDecoder.decode(param.substring(equals + 1), "UTF-8"));
+		}
+		return params;
+	}
+
+	private String escape(final String s) {
+		return s.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+			.replace("\"", "&quot;");
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/** Tests {@link POMCache}. */
+public class POMCacheTest {
+
+	@Test
+	public void testEviction() throws Exception {
+		final POMCache cache = new POMCache(2);
+		final POMSummary a = pom("a"), b = pom("b"), c = pom("c");
+		cache.put("g:a:1", a);
+		cache.put("g:b:1", b);
+
+		// NB: Touch a, so that b becomes the least recently used entry.
+		assertSame(a, cache.get("g:a:1"));
+		cache.put("g:c:1", c);
+
+		assertEquals(2, cache.size());
+		assertNull(cache.get("g:b:1"));
+		assertSame(a, cache.get("g:a:1"));
+		assertSame(c, cache.get("g:c:1"));
+
+		assertEquals(3, cache.getHits());
+		assertEquals(1, cache.getMisses());
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	public void testConcurrentLoad() throws Exception {
+		final POMCache cache = new POMCache(10);
+		final POMSummary a = pom("a");
+		final AtomicInteger loads = new AtomicInteger();
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		final POMCache.Loader loader = () -> {
+			loads.incrementAndGet();
+			started.countDown();
+			try {
+				release.await();
+			}
+			catch (final InterruptedException exc) {
+				throw new IllegalStateException(exc);
+			}
+			return a;
+		};
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final List<Future<POMSummary>> futures = new ArrayList<>();
+			futures.add(executor.submit(() -> cache.get("g:a:1", loader)));
+			started.await();
+			for (int i = 0; i < 3; i++) {
+				futures.add(executor.submit(() -> cache.get("g:a:1", loader)));
+			}
+			release.countDown();
+			for (final Future<POMSummary> future : futures) {
+				assertSame(a, future.get());
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+		assertEquals(1, loads.get());
+		assertEquals(1, cache.getMisses());
+		assertSame(a, cache.get("g:a:1", loader));
+		assertEquals(1, loads.get());
+	}
+
+	private POMSummary pom(final String a) throws Exception {
+		final String xml = "<project><groupId>g</groupId><artifactId>" + a +
+			"</artifactId><version>1</version></project>";
+		return POMSummary.read(new ByteArrayInputStream(xml.getBytes("UTF-8")),
+			null);
+	}
+
+}
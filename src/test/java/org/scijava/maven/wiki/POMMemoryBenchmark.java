@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+package org.scijava.maven.wiki;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.scijava.util.POM;
+import org.xml.sax.SAXException;
+
+/**
+ * Compares the memory needed to read a corpus of POMs as DOM-based
+ * {@link POM}s against that needed to read them as {@link POMSummary}
+ * instances. The corpus is a {@link SyntheticRepository} of the given number
+ * of components, whose POMs, parents and BOM included, are all read by each
+ * operation, and kept until it ends.
+ * <p>
+ * Run with the GC profiler, whose {@code gc.alloc.rate.norm} is the number of
+ * bytes allocated per read of the whole corpus:
+ * </p>
+ * <pre>
+ * mvn -Pbenchmark test -Djmh.include="POMMemory -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class POMMemoryBenchmark {
+
+	@Param({ "4000" })
+	private int components;
+
+	private File root;
+	private List<File> files;
+
+	@Setup
+	public void setUp() throws IOException {
+		root = Files.createTempDirectory("pom-memory").toFile();
+		final SyntheticRepository repo = new SyntheticRepository(root);
+		repo.setComponents(components);
+		repo.generate();
+		try (final Stream<Path> paths = Files.walk(root.toPath())) {
+			files = paths.filter(p -> p.toString().endsWith(".pom")).sorted() //
+				.map(Path::toFile).collect(Collectors.toList());
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		try (final Stream<Path> paths = Files.walk(root.toPath())) {
+			for (final Path path : paths.sorted(Comparator.reverseOrder()) //
+				.collect(Collectors.toList()))
+			{
+				Files.delete(path);
+			}
+		}
+	}
+
+	@Benchmark
+	public List<POM> readDOM() throws IOException, ParserConfigurationException,
+		SAXException
+	{
+		final List<POM> poms = new ArrayList<>(files.size());
+		for (final File file : files) {
+			poms.add(new POM(file));
+		}
+		return poms;
+	}
+
+	@Benchmark
+	public List<POMSummary> readStAX() throws IOException {
+		final List<POMSummary> poms = new ArrayList<>(files.size());
+		for (final File file : files) {
+			poms.add(POMSummary.read(file));
+		}
+		return poms;
+	}
+
+}
@@ -0,0 +1,78 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading a {@link POMSummary} from a
+ * {@link BenchmarkFixtures synthetic} component POM, and from the POM of a
+ * project with 1000 dependencies.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Djmh.include=POMSummary}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class POMSummaryBenchmark {
+
+	private byte[] component, project;
+
+	@Setup
+	public void setUp() {
+		component = BenchmarkFixtures.componentXML(0).getBytes(
+			StandardCharsets.UTF_8);
+		project = BenchmarkFixtures.projectXML(1000).getBytes(
+			StandardCharsets.UTF_8);
+	}
+
+	@Benchmark
+	public POMSummary readComponent() throws IOException {
+		return POMSummary.read(new ByteArrayInputStream(component), null);
+	}
+
+	@Benchmark
+	public POMSummary readProject() throws IOException {
+		return POMSummary.read(new ByteArrayInputStream(project), null);
+	}
+
+}
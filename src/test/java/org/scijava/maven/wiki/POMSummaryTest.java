@@ -0,0 +1,163 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.scijava.maven.wiki.ComponentMetadata.Person;
+import org.scijava.util.POM;
+
+/** Tests {@link POMSummary}. */
+public class POMSummaryTest {
+
+	@Test
+	public void testRead() throws Exception {
+		final String xml = "<?xml version=\"1.0\"?>\n" + //
+			"<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n" + //
+			"  <parent>\n" + //
+			"    <groupId>org.scijava</groupId>\n" + //
+			"    <artifactId>pom-scijava</artifactId>\n" + //
+			"    <version>26.0.0</version>\n" + //
+			"  </parent>\n" + //
+			"  <artifactId>foo</artifactId>\n" + //
+			"  <name>Foo</name>\n" + //
+			"  <developers>\n" + //
+			"    <developer>\n" + //
+			"      <id>ctrueden</id>\n" + //
+			"      <name>Curtis Rueden</name>\n" + //
+			"      <roles><role>lead</role><role>support (weekdays)</role></roles>\n" + //
+			"    </developer>\n" + //
+			"  </developers>\n" + //
+			"  <contributors>\n" + //
+			"    <contributor>\n" + //
+			"      <name>Jane Doe</name>\n" + //
+			"      <url>http://example.com/</url>\n" + //
+			"      <properties><id>jdoe</id></properties>\n" + //
+			"      <roles><role>founder</role></roles>\n" + //
+			"    </contributor>\n" + //
+			"  </contributors>\n" + //
+			"  <properties>\n" + //
+			"    <scijava.team.leads>2</scijava.team.leads>\n" + //
+			"    <empty/>\n" + //
+			"  </properties>\n" + //
+			"  <dependencies>\n" + //
+			"    <dependency>\n" + //
+			"      <groupId>org.scijava</groupId>\n" + //
+			"      <artifactId>scijava-common</artifactId>\n" + //
+			"    </dependency>\n" + //
+			"  </dependencies>\n" + //
+			"  <profiles><profile><dependencies><dependency>\n" + //
+			"    <artifactId>ignored</artifactId>\n" + //
+			"  </dependency></dependencies></profile></profiles>\n" + //
+			"</project>\n";
+		final POMSummary pom = POMSummary.read(new ByteArrayInputStream(xml
+			.getBytes("UTF-8")), "foo.pom");
+
+		assertEquals("foo.pom", pom.getPath());
+		assertEquals("org.scijava:foo:26.0.0", pom.getGAV());
+		assertEquals("pom-scijava", pom.getParentArtifactId());
+		assertEquals("Foo", pom.getProjectName());
+		assertNull(pom.getProjectURL());
+
+		final Person developer = pom.getDevelopers().get(0);
+		assertEquals("ctrueden", developer.getId());
+		assertEquals(Arrays.asList("lead", "support"), developer.getRoles());
+		final Person contributor = pom.getContributors().get(0);
+		assertEquals("jdoe", contributor.getId());
+		assertEquals("http://example.com/", contributor.getURL());
+		assertTrue(contributor.hasRole("founder"));
+
+		assertEquals("2", pom.getProperties().get("scijava.team.leads"));
+		assertEquals(1, pom.getProperties().size());
+
+		assertEquals(1, pom.getDependencies().size());
+		assertEquals("scijava-common", pom.getDependencies().get(0)
+			.getArtifactId());
+		assertNull(pom.getDependencies().get(0).getVersion());
+	}
+
+	@Test
+	public void testTrim() throws Exception {
+		final String xml = "<project>\n" + //
+			"  <groupId> org.example </groupId>\n" + //
+			"  <artifactId>\n    foo\n  </artifactId>\n" + //
+			"  <version>1.0</version>\n" + //
+			"  <name>   </name>\n" + //
+			"  <description>\n    A foo.\n  </description>\n" + //
+			"  <properties><key> value </key></properties>\n" + //
+			"</project>\n";
+		final POMSummary pom = POMSummary.read(new ByteArrayInputStream(xml
+			.getBytes("UTF-8")), null);
+		assertEquals("org.example:foo:1.0", pom.getGAV());
+		assertNull(pom.getProjectName());
+		assertEquals("A foo.", pom.getProjectDescription());
+		assertEquals("value", pom.getProperties().get("key"));
+	}
+
+	@Test
+	public void testMatchesDOM() throws Exception {
+		// NB: Compare against the DOM-based POMs of the class path.
+		final List<POM> poms = POM.getAllPOMs();
+		assertTrue(poms.size() > 0);
+		for (final POM dom : poms) {
+			final String path = dom.getPath();
+			final POMSummary pom = POMSummary.read(path.contains("!/") ? //
+				new URL("jar:" + path) : new File(path).toURI().toURL());
+			assertEquals(path, dom.getGroupId(), pom.getGroupId());
+			assertEquals(dom.getArtifactId(), pom.getArtifactId());
+			assertEquals(dom.getVersion(), pom.getVersion());
+			assertEquals(dom.getParentArtifactId(), pom.getParentArtifactId());
+			assertEquals(trimmed(dom.getProjectName()), pom.getProjectName());
+			assertEquals(trimmed(dom.getProjectDescription()), pom
+				.getProjectDescription());
+			assertEquals(trimmed(dom.getProjectURL()), pom.getProjectURL());
+			assertEquals(trimmed(dom.getSCMURL()), pom.getSCMURL());
+			assertEquals(trimmed(dom.getSCMTag()), pom.getSCMTag());
+			assertEquals(dom.elements("//project/developers/developer").size(), pom
+				.getDevelopers().size());
+			assertEquals(dom.elements("//project/licenses/license").size(), pom
+				.getLicenses().size());
+			assertEquals(dom.elements("//project/dependencies/dependency").size(),
+				pom.getDependencies().size());
+		}
+	}
+
+	// -- Helper methods --
+
+	/** Trims the given DOM text, as summaries do. */
+	private static String trimmed(final String text) {
+		return text == null || text.trim().isEmpty() ? null : text.trim();
+	}
+
+}
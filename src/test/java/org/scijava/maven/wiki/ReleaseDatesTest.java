@@ -0,0 +1,150 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Date;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests {@link ReleaseDates}. */
+public class ReleaseDatesTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testManifestDate() throws Exception {
+		final POMSummary pom = install("foo", "1.0.0", "2017-03-31T14:28:44+0000");
+		final ReleaseDates dates = new ReleaseDates();
+		final Date date = dates.get(pom);
+		assertEquals(1490970524000L, date.getTime());
+		assertEquals(date, dates.get(pom));
+		assertEquals("1 dates, 1 hits, 1 misses", dates.toString());
+	}
+
+	@Test
+	public void testClasspathJAR() throws Exception {
+		// NB: The JAR's path, as part of a URL, has its space escaped.
+		final File dir = tmp.newFolder("with space");
+		final File jar = new File(dir, "baz-1.0.0.jar");
+		final Manifest manifest = new Manifest();
+		manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		manifest.getMainAttributes().putValue("Implementation-Date",
+			"2017-03-31T14:28:44+0000");
+		try (final JarOutputStream out = new JarOutputStream(new FileOutputStream(
+			jar), manifest))
+		{
+			out.putNextEntry(new ZipEntry("META-INF/maven/org.example/baz/pom.xml"));
+			out.write(("<project><groupId>org.example</groupId>" + //
+				"<artifactId>baz</artifactId><version>1.0.0</version></project>")
+					.getBytes(StandardCharsets.UTF_8));
+		}
+		final POMSummary pom = POMSummary.read(new URL("jar:" + jar.toURI()
+			.toURL() + "!/META-INF/maven/org.example/baz/pom.xml"));
+		assertEquals(jar, ReleaseDates.jarFile(pom));
+		assertEquals(1490970524000L, new ReleaseDates().get(pom).getTime());
+	}
+
+	@Test
+	public void testNoDate() throws Exception {
+		final ReleaseDates dates = new ReleaseDates();
+		assertNull(dates.get(install("bar", "1.0.0", null)));
+		assertNull(dates.get(pom("baz", "1.0.0")));
+	}
+
+	@Test
+	public void testSaveAndLoad() throws Exception {
+		final POMSummary release = //
+			install("foo", "1.0.0", "2017-03-31T14:28:44+0000");
+		final POMSummary snapshot = //
+			install("foo", "1.1.0-SNAPSHOT", "2017-04-01T10:00:00+0000");
+		final ReleaseDates dates = new ReleaseDates();
+		dates.get(release);
+		dates.get(snapshot);
+		final File file = new File(tmp.getRoot(), "dates.properties");
+		dates.save(file);
+
+		// NB: Only the release date is recorded, and read without its JAR.
+		final ReleaseDates loaded = new ReleaseDates();
+		loaded.load(file);
+		assertEquals(1, loaded.size());
+		Files.delete(ReleaseDates.jarFile(release).toPath());
+		assertEquals(1490970524000L, loaded.get(release).getTime());
+	}
+
+	/**
+	 * Creates a POM and a JAR for the given component in a local repository
+	 * layout, the JAR's manifest having the given {@code Implementation-Date}.
+	 */
+	private POMSummary install(final String a, final String v,
+		final String implementationDate) throws IOException
+	{
+		final POMSummary pom = pom(a, v);
+		final Manifest manifest = new Manifest();
+		final Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.putValue("Implementation-Title", a);
+		if (implementationDate != null) {
+			attributes.putValue("Implementation-Date", implementationDate);
+		}
+		final File jar = new File(new File(pom.getPath()).getParentFile(), //
+			a + "-" + v + ".jar");
+		try (final OutputStream out = new JarOutputStream(new FileOutputStream(
+			jar), manifest))
+		{
+			// NB: The manifest is the only entry.
+		}
+		return pom;
+	}
+
+	private POMSummary pom(final String a, final String v) throws IOException {
+		final File dir = new File(tmp.getRoot(), "org/example/" + a + "/" + v);
+		dir.mkdirs();
+		final File file = new File(dir, a + "-" + v + ".pom");
+		final String xml = "<project>" + //
+			"<groupId>org.example</groupId>" + //
+			"<artifactId>" + a + "</artifactId>" + //
+			"<version>" + v + "</version>" + //
+			"</project>";
+		Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+		return POMSummary.read(file);
+	}
+
+}
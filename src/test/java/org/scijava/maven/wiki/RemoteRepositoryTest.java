@@ -0,0 +1,180 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests {@link RemoteRepository}. */
+public class RemoteRepositoryTest {
+
+	private static final String POM = "org/example/a/1.0/a-1.0.pom";
+
+	private static final String METADATA = "org/example/a/maven-metadata.xml";
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private HttpServer server;
+
+	/** Files served, by path. */
+	private final Map<String, String> files = new HashMap<>();
+
+	/** {@code If-None-Match} header of each request, or null if none. */
+	private final List<String> conditions = Collections.synchronizedList(
+		new ArrayList<>());
+
+	/** Number of responses compressed with gzip. */
+	private volatile int gzipped;
+
+	private RemoteRepository repository;
+
+	@Before
+	public void setUp() throws IOException {
+		files.put(POM, "<project><artifactId>a</artifactId></project>");
+		files.put(METADATA, "<metadata><versioning><release>1.0</release>" +
+			"</versioning></metadata>");
+		server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+		server.createContext("/repo/", this::handle);
+		server.start();
+		repository = new RemoteRepository("http://localhost:" + server
+			.getAddress().getPort() + "/repo");
+	}
+
+	@After
+	public void tearDown() {
+		server.stop(0);
+	}
+
+	@Test
+	public void testFetch() throws IOException {
+		assertEquals(files.get(POM), read(POM));
+		assertEquals(1, repository.getRequestCount());
+		assertEquals(1, gzipped);
+		assertNull(conditions.get(0));
+	}
+
+	@Test(expected = FileNotFoundException.class)
+	public void testNotFound() throws IOException {
+		repository.open("org/example/b/1.0/b-1.0.pom");
+	}
+
+	@Test
+	public void testCachedRelease() throws IOException {
+		repository.setCacheDir(tmp.getRoot());
+		assertEquals(files.get(POM), read(POM));
+		// NB: Released files never change, so the server is not asked again.
+		assertEquals(files.get(POM), read(POM));
+		assertEquals(1, repository.getRequestCount());
+		assertEquals(1, repository.getCachedCount());
+	}
+
+	@Test
+	public void testConditionalGet() throws IOException {
+		repository.setCacheDir(tmp.getRoot());
+		final String metadata = files.get(METADATA);
+		assertEquals(metadata, read(METADATA));
+		assertEquals(metadata, read(METADATA));
+		assertEquals(2, repository.getRequestCount());
+		assertEquals(1, repository.getNotModifiedCount());
+		assertEquals(etag(metadata), conditions.get(1));
+
+		// a changed file is fetched again
+		files.put(METADATA, "<metadata/>");
+		assertEquals("<metadata/>", read(METADATA));
+		assertEquals(1, repository.getNotModifiedCount());
+	}
+
+	private String read(final String path) throws IOException {
+		try (final InputStream in = repository.open(path)) {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			for (int r; (r = in.read(buffer)) >= 0;) {
+				out.write(buffer, 0, r);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	/** Serves the files gzipped, with an {@code ETag}. */
+	private void handle(final HttpExchange exchange) throws IOException {
+		final String ifNoneMatch = exchange.getRequestHeaders().getFirst(
+			"If-None-Match");
+		conditions.add(ifNoneMatch);
+		final String file = files.get(exchange.getRequestURI().getPath()
+			.substring("/repo/".length()));
+		if (file == null) {
+			exchange.sendResponseHeaders(404, -1);
+			exchange.close();
+			return;
+		}
+		final String etag = etag(file);
+		exchange.getResponseHeaders().set("ETag", etag);
+		if (etag.equals(ifNoneMatch)) {
+			exchange.sendResponseHeaders(304, -1);
+			exchange.close();
+			return;
+		}
+		final boolean gzip = "gzip".equals(exchange.getRequestHeaders().getFirst(
+			"Accept-Encoding"));
+		if (gzip) {
+			exchange.getResponseHeaders().set("Content-Encoding", "gzip");
+			gzipped++;
+		}
+		exchange.sendResponseHeaders(200, 0);
+		try (final OutputStream out = gzip ? new GZIPOutputStream(exchange
+			.getResponseBody()) : exchange.getResponseBody())
+		{
+			out.write(file.getBytes(StandardCharsets.UTF_8));
+		}
+	}
+
+	private static String etag(final String content) {
+		return "\"" + Integer.toHexString(content.hashCode()) + "\"";
+	}
+
+}
@@ -0,0 +1,205 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+/** Tests {@link RepositoryMirrors}. */
+public class RepositoryMirrorsTest {
+
+	@Test
+	public void testFailover() throws Exception {
+		try (final Mirror broken = new Mirror(); final Mirror good = new Mirror()) {
+			broken.failing = true;
+			good.put("org/example/a/1.0/a-1.0.pom", "a");
+			good.put("org/example/b/1.0/b-1.0.pom", "b");
+			final RepositoryMirrors mirrors = new RepositoryMirrors(broken.repository,
+				good.repository);
+
+			assertEquals("a", read(mirrors, "org.example:a",
+				"org/example/a/1.0/a-1.0.pom"));
+			assertFalse(mirrors.isHealthy(broken.repository));
+
+			// the broken mirror is avoided for a while
+			assertEquals("b", read(mirrors, "org.example:b",
+				"org/example/b/1.0/b-1.0.pom"));
+			assertEquals(1, broken.requests.get());
+		}
+	}
+
+	@Test
+	public void testSources() throws Exception {
+		try (final Mirror central = new Mirror(); final Mirror extra = new Mirror()) {
+			extra.put("org/example/a/1.0/a-1.0.pom", "a");
+			extra.put("org/example/a/1.1/a-1.1.pom", "a 1.1");
+			final RepositoryMirrors mirrors = new RepositoryMirrors(central
+				.repository, extra.repository);
+
+			assertEquals("a", read(mirrors, "org.example:a",
+				"org/example/a/1.0/a-1.0.pom"));
+			assertEquals(1, central.requests.get());
+			assertTrue(mirrors.isHealthy(central.repository));
+
+			// other files of the same component are sought where it was found
+			assertEquals("a 1.1", read(mirrors, "org.example:a",
+				"org/example/a/1.1/a-1.1.pom"));
+			assertEquals(1, central.requests.get());
+			assertEquals(2, extra.requests.get());
+		}
+	}
+
+	@Test(expected = FileNotFoundException.class)
+	public void testNotFound() throws Exception {
+		try (final Mirror one = new Mirror(); final Mirror two = new Mirror()) {
+			final RepositoryMirrors mirrors = new RepositoryMirrors(one.repository,
+				two.repository);
+			read(mirrors, "org.example:a", "org/example/a/1.0/a-1.0.pom");
+		}
+	}
+
+	@Test
+	public void testFastest() throws Exception {
+		try (final Mirror slow = new Mirror(); final Mirror fast = new Mirror()) {
+			slow.delay = 200;
+			for (final Mirror mirror : new Mirror[] { slow, fast }) {
+				for (final String a : new String[] { "a", "b", "c", "d" }) {
+					mirror.put("org/example/" + a + "/1.0/" + a + "-1.0.pom", a);
+				}
+			}
+			final RepositoryMirrors mirrors = new RepositoryMirrors(slow.repository,
+				fast.repository);
+			for (final String a : new String[] { "a", "b", "c", "d" }) {
+				assertEquals(a, read(mirrors, "org.example:" + a, "org/example/" + a +
+					"/1.0/" + a + "-1.0.pom"));
+			}
+			// NB: Each mirror is measured once, then the fast one is preferred.
+			assertEquals(1, slow.requests.get());
+			assertEquals(3, fast.requests.get());
+			assertTrue(mirrors.getLatency(slow.repository) > mirrors.getLatency(
+				fast.repository));
+		}
+	}
+
+	@Test
+	public void testHedge() throws Exception {
+		try (final Mirror stuck = new Mirror(); final Mirror spare = new Mirror()) {
+			stuck.delay = 2000;
+			stuck.put("org/example/a/1.0/a-1.0.pom", "stuck");
+			spare.put("org/example/a/1.0/a-1.0.pom", "spare");
+			final RepositoryMirrors mirrors = new RepositoryMirrors(stuck.repository,
+				spare.repository);
+			mirrors.setHedgeDelay(50);
+
+			final long start = System.currentTimeMillis();
+			assertEquals("spare", read(mirrors, "org.example:a",
+				"org/example/a/1.0/a-1.0.pom"));
+			assertTrue(System.currentTimeMillis() - start < 1500);
+			assertEquals(1, stuck.requests.get());
+		}
+	}
+
+	private String read(final RepositoryMirrors mirrors, final String ga,
+		final String path) throws IOException
+	{
+		try (final InputStream in = mirrors.open(ga, path)) {
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			for (int r; (r = in.read(buffer)) >= 0;) {
+				out.write(buffer, 0, r);
+			}
+			return new String(out.toByteArray(), StandardCharsets.UTF_8);
+		}
+	}
+
+	/** A stand-in remote repository. */
+	private static class Mirror implements AutoCloseable {
+
+		private final HttpServer server;
+		private final RemoteRepository repository;
+		private final Map<String, String> files = new ConcurrentHashMap<>();
+		private final AtomicInteger requests = new AtomicInteger();
+		private volatile boolean failing;
+		private volatile long delay;
+
+		public Mirror() throws IOException {
+			server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+			server.createContext("/", this::handle);
+			server.setExecutor(Executors.newCachedThreadPool());
+			server.start();
+			repository = new RemoteRepository("http://localhost:" + server
+				.getAddress().getPort() + "/");
+		}
+
+		public void put(final String path, final String content) {
+			files.put(path, content);
+		}
+
+		@Override
+		public void close() {
+			server.stop(0);
+		}
+
+		private void handle(final HttpExchange exchange) throws IOException {
+			requests.incrementAndGet();
+			try {
+				Thread.sleep(delay);
+			}
+			catch (final InterruptedException exc) {
+				Thread.currentThread().interrupt();
+			}
+			final String file = files.get(exchange.getRequestURI().getPath()
+				.substring(1));
+			if (failing || file == null) {
+				exchange.sendResponseHeaders(failing ? 500 : 404, -1);
+				exchange.close();
+				return;
+			}
+			final byte[] bytes = file.getBytes(StandardCharsets.UTF_8);
+			exchange.sendResponseHeaders(200, bytes.length);
+			try (final OutputStream out = exchange.getResponseBody()) {
+				out.write(bytes);
+			}
+		}
+	}
+
+}
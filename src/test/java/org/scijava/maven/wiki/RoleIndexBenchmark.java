@@ -0,0 +1,127 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+package org.scijava.maven.wiki;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.scijava.maven.wiki.ComponentMetadata.Person;
+
+/**
+ * Compares resolving a component's team via {@link RoleIndex} against
+ * rescanning the whole team once per role, as the component table used to.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Djmh.include=RoleIndex}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoleIndexBenchmark {
+
+	private static final String[] ROLES = { "founder", "lead", "developer",
+		"debugger", "reviewer", "support", "maintainer", "translator",
+		"documentation" };
+
+	@Param({ "10", "100", "1000" })
+	public int teamSize;
+
+	private ComponentMetadata meta;
+
+	@Setup
+	public void setUp() {
+		final Random r = new Random(0xBEEF);
+		final ComponentMetadata.Builder b = new ComponentMetadata.Builder();
+		for (int i = 0; i < teamSize; i++) {
+			final List<String> roles = new ArrayList<>();
+			final int roleCount = 1 + r.nextInt(3);
+			for (int j = 0; j < roleCount; j++) {
+				roles.add(ROLES[r.nextInt(ROLES.length)]);
+			}
+			final Person person = new Person("dev" + i, "Developer " + i, null,
+				roles);
+			if (i % 4 == 0) b.contributor(person);
+			else b.developer(person);
+		}
+		meta = b.build();
+	}
+
+	@Benchmark
+	public void index(final Blackhole bh) {
+		final RoleIndex roles = new RoleIndex(meta);
+		bh.consume(roles.getFounders());
+		for (final String role : RoleIndex.KNOWN_ROLES) {
+			bh.consume(roles.get(role));
+		}
+		bh.consume(roles.getUnknownRoles());
+	}
+
+	@Benchmark
+	public void scan(final Blackhole bh) {
+		final List<Person> founders = withRole("founder");
+		for (final Person contributor : meta.getContributors()) {
+			if (contributor.hasRole("founder")) founders.add(contributor);
+		}
+		bh.consume(founders);
+		for (final String role : RoleIndex.KNOWN_ROLES) {
+			bh.consume(withRole(role));
+		}
+		for (final Person developer : meta.getDevelopers()) {
+			final List<String> unknown = new ArrayList<>();
+			for (final String role : developer.getRoles()) {
+				if (!RoleIndex.KNOWN_ROLES.contains(role)) unknown.add(role);
+			}
+			bh.consume(unknown);
+		}
+	}
+
+	// -- Helper methods --
+
+	private List<Person> withRole(final String role) {
+		final List<Person> people = new ArrayList<>();
+		for (final Person developer : meta.getDevelopers()) {
+			if (developer.hasRole(role)) people.add(developer);
+		}
+		return people;
+	}
+
+}
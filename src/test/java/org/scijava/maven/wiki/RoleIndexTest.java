@@ -0,0 +1,70 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.scijava.maven.wiki.ComponentMetadata.Person;
+
+/** Tests {@link RoleIndex}. */
+public class RoleIndexTest {
+
+	@Test
+	public void testRoles() {
+		final Person alice = person("alice", "founder", "lead", "Lead");
+		final Person bob = person("bob", "developer", "translator");
+		final Person carol = person("carol", "lead", "debugger");
+		final Person dave = person("dave", "founder");
+		final ComponentMetadata meta = new ComponentMetadata.Builder() //
+			.developer(alice).developer(bob).developer(carol) //
+			.contributor(dave).build();
+		final RoleIndex roles = new RoleIndex(meta);
+
+		assertEquals(Arrays.asList(alice, carol), roles.get("lead"));
+		assertEquals(2, roles.count("LEAD"));
+		assertEquals(Arrays.asList(bob), roles.get("developer"));
+		assertEquals(0, roles.count("support"));
+		assertTrue(roles.get("support").isEmpty());
+		assertEquals(Arrays.asList(alice, dave), roles.getFounders());
+
+		final Map<Person, List<String>> unknown = roles.getUnknownRoles();
+		assertEquals(2, unknown.size());
+		assertEquals(Arrays.asList("Lead"), unknown.get(alice));
+		assertEquals(Arrays.asList("translator"), unknown.get(bob));
+	}
+
+	private Person person(final String id, final String... roles) {
+		return new Person(id, id, null, roles.length == 0 ? Collections
+			.<String> emptyList() : Arrays.asList(roles));
+	}
+
+}
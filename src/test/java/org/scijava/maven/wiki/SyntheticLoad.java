@@ -0,0 +1,119 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.security.auth.login.LoginException;
+
+/**
+ * A load test of a whole run against a {@link SyntheticRepository}, offline:
+ * generating the repository, indexing its BOM, and a dry-run update of all the
+ * pages, whose output is discarded.
+ * <p>
+ * Usage: {@code SyntheticLoad [components [directory]]}, by default 10000
+ * components, in a temporary directory. An existing repository in the given
+ * directory is reused.
+ * </p>
+ */
+public class SyntheticLoad {
+
+	public static void main(final String... args) throws IOException,
+		LoginException
+	{
+		final int components = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		final File dir = args.length > 1 ? new File(args[1]) : //
+			Files.createTempDirectory("synthetic-repository").toFile();
+
+		final SyntheticRepository repo = new SyntheticRepository(dir);
+		repo.setComponents(components);
+		long start = System.nanoTime();
+		if (!new File(dir, SyntheticRepository.GROUP_ID.replace('.', '/') + "/" +
+			SyntheticRepository.BOM_ID).exists())
+		{
+			repo.generate();
+			System.out.println("Generated " + components + " components in " + //
+				elapsed(start) + " ms: " + dir);
+		}
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Runtime
+			.getRuntime().availableProcessors());
+		try {
+			start = System.nanoTime();
+			final ComponentIndex index = new ComponentIndex(
+				SyntheticRepository.GROUP_ID, SyntheticRepository.BOM_ID,
+				SyntheticRepository.VERSION, ComponentIndex.Resolution.DIRECT,
+				POMSummary::getAllPOMs, executor, new MavenRepositories(dir));
+			System.out.println("Indexed " + index.getPOMs().size() + //
+				" components in " + elapsed(start) + " ms");
+
+			start = System.nanoTime();
+			final Sink sink = new Sink();
+			final WikiUpdater wikiUpdater = new WikiUpdater(null);
+			wikiUpdater.setParallel(true);
+			wikiUpdater.setOutput(sink);
+			wikiUpdater.update(index, true);
+			System.out.println("Rendered " + sink.count + " characters in " + //
+				elapsed(start) + " ms");
+		}
+		finally {
+			executor.shutdown();
+		}
+		System.out.println("POM cache: " + POMCache.shared());
+		System.out.println("Release dates: " + ReleaseDates.shared());
+	}
+
+	private static long elapsed(final long start) {
+		return (System.nanoTime() - start) / 1000000;
+	}
+
+	/** An output which counts the characters written to it, and no more. */
+	private static class Sink extends Writer {
+
+		private long count;
+
+		@Override
+		public void write(final char[] cbuf, final int off, final int len) {
+			count += len;
+		}
+
+		@Override
+		public Writer append(final CharSequence csq) {
+			count += csq.length();
+			return this;
+		}
+
+		@Override
+		public void flush() {}
+
+		@Override
+		public void close() {}
+	}
+
+}
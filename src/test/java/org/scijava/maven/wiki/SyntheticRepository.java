@@ -0,0 +1,381 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Writes a synthetic Maven repository, laid out like {@code ~/.m2/repository},
+ * with which to test the index at scale without network access.
+ * <p>
+ * The repository contains a chain of parent POMs, the outermost of which
+ * declares licenses, developers and team targets; the given number of
+ * components inheriting from the innermost parent, each with a JAR whose
+ * manifest gives its release date; and a BOM, {@code G:synth-bom:1.0.0}, which
+ * manages the versions of all the components and depends on all of them.
+ * Index the BOM with {@link ComponentIndex.Resolution#DIRECT}, seeking POMs in
+ * {@link MavenRepositories} whose local repository is this one.
+ * </p>
+ * <p>
+ * The content is pseudorandom but reproducible: the same settings always yield
+ * the same repository.
+ * </p>
+ * <p>
+ * Usage: {@code SyntheticRepository directory [components [parentDepth
+ * [developers [contributors]]]]}, by default 10000 components, 3 parents, and
+ * up to 8 developers and 4 contributors per component.
+ * </p>
+ */
+public class SyntheticRepository {
+
+	public static final String GROUP_ID = "org.example.synth";
+	public static final String BOM_ID = "synth-bom";
+	public static final String VERSION = "1.0.0";
+
+	private static final String[] ROLES = { "founder", "lead", "developer",
+		"debugger", "reviewer", "support", "maintainer", "translator" };
+
+	private static final String[] LICENSES = { "Simplified BSD License",
+		"GNU General Public License v3+", "The MIT License",
+		"Apache License, Version 2.0", "Eclipse Public License - v 1.0" };
+
+	private static final DateTimeFormatter IMPLEMENTATION_DATE = //
+		DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssZ").withZone(
+			ZoneOffset.UTC);
+
+	/** Release date of the first component; each later one is a day later. */
+	private static final long EPOCH = 1420070400000L; // 2015-01-01
+
+	private final File root;
+
+	private int components = 10000;
+	private int parentDepth = 3;
+	private int developers = 8;
+	private int contributors = 4;
+
+	public SyntheticRepository(final File root) {
+		this.root = root;
+	}
+
+	public static void main(final String... args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: SyntheticRepository directory " +
+				"[components [parentDepth [developers [contributors]]]]");
+			System.exit(1);
+		}
+		final SyntheticRepository repo = new SyntheticRepository(new File(
+			args[0]));
+		if (args.length > 1) repo.setComponents(Integer.parseInt(args[1]));
+		if (args.length > 2) repo.setParentDepth(Integer.parseInt(args[2]));
+		if (args.length > 3) repo.setDevelopers(Integer.parseInt(args[3]));
+		if (args.length > 4) repo.setContributors(Integer.parseInt(args[4]));
+		final long start = System.nanoTime();
+		repo.generate();
+		System.out.printf("Wrote %d components to %s in %d ms%n", //
+			repo.getComponents(), repo.getRoot(), //
+			(System.nanoTime() - start) / 1000000);
+	}
+
+	// -- SyntheticRepository methods --
+
+	public File getRoot() {
+		return root;
+	}
+
+	public int getComponents() {
+		return components;
+	}
+
+	public void setComponents(final int components) {
+		this.components = components;
+	}
+
+	public int getParentDepth() {
+		return parentDepth;
+	}
+
+	/** Sets the number of parent POMs between each component and the root. */
+	public void setParentDepth(final int parentDepth) {
+		if (parentDepth < 1) {
+			throw new IllegalArgumentException("Invalid depth: " + parentDepth);
+		}
+		this.parentDepth = parentDepth;
+	}
+
+	public int getDevelopers() {
+		return developers;
+	}
+
+	/** Sets the maximum number of developers of each component. */
+	public void setDevelopers(final int developers) {
+		this.developers = developers;
+	}
+
+	public int getContributors() {
+		return contributors;
+	}
+
+	/** Sets the maximum number of contributors to each component. */
+	public void setContributors(final int contributors) {
+		this.contributors = contributors;
+	}
+
+	/** Gets the artifact ID of the given component. */
+	public static String componentId(final int i) {
+		return "synth-component-" + i;
+	}
+
+	/** Gets the version of the given component. */
+	public static String componentVersion(final int i) {
+		return "1." + (i % 10) + "." + i;
+	}
+
+	/** Gets the release date of the given component, as in its manifest. */
+	public static long releaseDate(final int i) {
+		return EPOCH + i * 86400000L;
+	}
+
+	/** Writes the repository. */
+	public void generate() throws IOException {
+		for (int p = 0; p < parentDepth; p++) {
+			write(parentId(p), VERSION, parentXML(p));
+		}
+		write(BOM_ID, VERSION, bomXML());
+		for (int i = 0; i < components; i++) {
+			final String a = componentId(i);
+			final String v = componentVersion(i);
+			final String xml = componentXML(i);
+			write(a, v, xml);
+			writeJar(a, v, xml, releaseDate(i));
+		}
+	}
+
+	// -- Helper methods --
+
+	private String parentId(final int p) {
+		return "synth-parent-" + p;
+	}
+
+	private String parentXML(final int p) {
+		final StringBuilder sb = header();
+		if (p > 0) parent(sb, parentId(p - 1));
+		else element(sb, 1, "groupId", GROUP_ID);
+		element(sb, 1, "artifactId", parentId(p));
+		element(sb, 1, "version", VERSION);
+		element(sb, 1, "packaging", "pom");
+		element(sb, 1, "name", "Synthetic Parent " + p);
+		if (p == 0) {
+			licenses(sb, LICENSES[0]);
+			sb.append("  <developers>\n");
+			person(sb, "developer", "root-lead", "Root Lead", "lead", "support");
+			sb.append("  </developers>\n");
+		}
+		sb.append("  <properties>\n");
+		element(sb, 2, "scijava.team.leads", "1");
+		element(sb, 2, "scijava.team.developers", "" + (2 + p));
+		element(sb, 2, "synth.parent." + p, "true");
+		sb.append("  </properties>\n");
+		return footer(sb);
+	}
+
+	private String bomXML() {
+		final StringBuilder sb = header();
+		element(sb, 1, "groupId", GROUP_ID);
+		element(sb, 1, "artifactId", BOM_ID);
+		element(sb, 1, "version", VERSION);
+		element(sb, 1, "packaging", "pom");
+		element(sb, 1, "name", "Synthetic BOM");
+		sb.append("  <dependencyManagement>\n");
+		sb.append("    <dependencies>\n");
+		for (int i = 0; i < components; i++) {
+			sb.append("      <dependency>\n");
+			element(sb, 4, "groupId", GROUP_ID);
+			element(sb, 4, "artifactId", componentId(i));
+			element(sb, 4, "version", componentVersion(i));
+			sb.append("      </dependency>\n");
+		}
+		sb.append("    </dependencies>\n");
+		sb.append("  </dependencyManagement>\n");
+		sb.append("  <dependencies>\n");
+		for (int i = 0; i < components; i++) {
+			sb.append("    <dependency>\n");
+			element(sb, 3, "groupId", GROUP_ID);
+			element(sb, 3, "artifactId", componentId(i));
+			sb.append("    </dependency>\n");
+		}
+		sb.append("  </dependencies>\n");
+		return footer(sb);
+	}
+
+	private String componentXML(final int i) {
+		final Random r = new Random(i);
+		final String a = componentId(i);
+		final StringBuilder sb = header();
+		parent(sb, parentId(parentDepth - 1));
+		element(sb, 1, "artifactId", a);
+		element(sb, 1, "version", componentVersion(i));
+		element(sb, 1, "name", "Synthetic Component " + i);
+		element(sb, 1, "description", "Synthetic component number " + i + ".");
+		element(sb, 1, "url", "https://example.org/" + a);
+		// NB: Most components inherit the license and team of the root parent.
+		final boolean own = i % 4 == 0;
+		if (own) licenses(sb, LICENSES[r.nextInt(LICENSES.length)]);
+		final int devCount = developers == 0 ? 0 : 1 + r.nextInt(developers);
+		if (own || i % 4 == 1) {
+			sb.append("  <developers>\n");
+			for (int d = 0; d < devCount; d++) {
+				final int id = r.nextInt(1000);
+				person(sb, "developer", "dev" + id, "Developer " + id, //
+					ROLES[r.nextInt(ROLES.length)], ROLES[r.nextInt(ROLES.length)]);
+			}
+			sb.append("  </developers>\n");
+		}
+		final int contribCount = contributors == 0 ? 0 : r.nextInt(contributors +
+			1);
+		if (contribCount > 0) {
+			sb.append("  <contributors>\n");
+			for (int c = 0; c < contribCount; c++) {
+				final int id = r.nextInt(5000);
+				person(sb, "contributor", null, "Contributor " + id, "translator");
+			}
+			sb.append("  </contributors>\n");
+		}
+		sb.append("  <scm>\n");
+		element(sb, 2, "url", "https://github.com/example/" + a);
+		element(sb, 2, "tag", a + "-" + componentVersion(i));
+		sb.append("  </scm>\n");
+		if (i % 13 == 0) {
+			sb.append("  <properties>\n");
+			element(sb, 2, "scijava.obsolete", "true");
+			sb.append("  </properties>\n");
+		}
+		return footer(sb);
+	}
+
+	private void write(final String a, final String v, final String xml)
+		throws IOException
+	{
+		final File file = new File(dir(a, v), a + "-" + v + ".pom");
+		Files.write(file.toPath(), xml.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/** Writes a JAR containing the given POM, as Maven would package it. */
+	private void writeJar(final String a, final String v, final String xml,
+		final long releaseDate) throws IOException
+	{
+		final Manifest manifest = new Manifest();
+		final Attributes attributes = manifest.getMainAttributes();
+		attributes.put(Attributes.Name.MANIFEST_VERSION, "1.0");
+		attributes.put(Attributes.Name.IMPLEMENTATION_TITLE, a);
+		attributes.put(Attributes.Name.IMPLEMENTATION_VERSION, v);
+		attributes.putValue("Implementation-Date", IMPLEMENTATION_DATE.format(
+			Instant.ofEpochMilli(releaseDate)));
+		final File file = new File(dir(a, v), a + "-" + v + ".jar");
+		try (final JarOutputStream out = new JarOutputStream(new FileOutputStream(
+			file), manifest))
+		{
+			out.putNextEntry(new JarEntry("META-INF/maven/" + GROUP_ID + "/" + a +
+				"/pom.xml"));
+			out.write(xml.getBytes(StandardCharsets.UTF_8));
+			out.closeEntry();
+		}
+	}
+
+	private File dir(final String a, final String v) throws IOException {
+		final File dir = new File(root, GROUP_ID.replace('.', '/') + "/" + a +
+			"/" + v);
+		if (!dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Cannot create directory: " + dir);
+		}
+		return dir;
+	}
+
+	private StringBuilder header() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+		sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+		sb.append("  <modelVersion>4.0.0</modelVersion>\n");
+		return sb;
+	}
+
+	private String footer(final StringBuilder sb) {
+		sb.append("</project>\n");
+		return sb.toString();
+	}
+
+	private void parent(final StringBuilder sb, final String parentId) {
+		sb.append("  <parent>\n");
+		element(sb, 2, "groupId", GROUP_ID);
+		element(sb, 2, "artifactId", parentId);
+		element(sb, 2, "version", VERSION);
+		sb.append("  </parent>\n");
+	}
+
+	private void licenses(final StringBuilder sb, final String name) {
+		sb.append("  <licenses>\n");
+		sb.append("    <license>\n");
+		element(sb, 3, "name", name);
+		element(sb, 3, "url", "https://example.org/licenses/" + //
+			name.replace(' ', '_'));
+		sb.append("    </license>\n");
+		sb.append("  </licenses>\n");
+	}
+
+	private void person(final StringBuilder sb, final String tag,
+		final String id, final String name, final String... roles)
+	{
+		sb.append("    <").append(tag).append(">\n");
+		if (id != null) element(sb, 3, "id", id);
+		element(sb, 3, "name", name);
+		sb.append("      <roles>\n");
+		for (final String role : roles) {
+			element(sb, 4, "role", role);
+		}
+		sb.append("      </roles>\n");
+		sb.append("    </").append(tag).append(">\n");
+	}
+
+	private void element(final StringBuilder sb, final int depth,
+		final String name, final String value)
+	{
+		for (int i = 0; i < depth; i++) {
+			sb.append("  ");
+		}
+		sb.append('<').append(name).append('>').append(value);
+		sb.append("</").append(name).append(">\n");
+	}
+
+}
@@ -0,0 +1,123 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests {@link SyntheticRepository}. */
+public class SyntheticRepositoryTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	@Test
+	public void testIndexBOM() throws Exception {
+		final SyntheticRepository repo = new SyntheticRepository(tmp.getRoot());
+		repo.setComponents(20);
+		repo.setParentDepth(2);
+		repo.generate();
+
+		final ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			final ComponentIndex index = new ComponentIndex(
+				SyntheticRepository.GROUP_ID, SyntheticRepository.BOM_ID,
+				SyntheticRepository.VERSION, ComponentIndex.Resolution.DIRECT,
+				POMSummary::getAllPOMs, executor, new MavenRepositories(repo
+					.getRoot()));
+			assertEquals(20, index.getPOMs().size());
+
+			// NB: Component 1 inherits its license from the outermost parent.
+			final POMSummary pom = find(index, SyntheticRepository.componentId(1));
+			assertEquals(SyntheticRepository.componentVersion(1), pom.getVersion());
+			final ComponentMetadata metadata = index.getMetadata(pom);
+			assertEquals("Simplified BSD License", metadata.getLicenses().get(0)
+				.getName());
+			assertTrue(metadata.getDevelopers().size() > 0);
+			assertEquals(SyntheticRepository.releaseDate(1), metadata
+				.getReleaseDate().getTime());
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	@Test
+	public void testManagedResolution() throws Exception {
+		final SyntheticRepository repo = new SyntheticRepository(tmp.getRoot());
+		repo.setComponents(20);
+		repo.generate();
+
+		// a platform BOM which imports the synthetic BOM, and adds a component
+		final String g = SyntheticRepository.GROUP_ID;
+		final File dir = new File(repo.getRoot(), g.replace('.', '/') +
+			"/synth-platform/1.0.0");
+		assertTrue(dir.mkdirs());
+		final String xml = "<project>\n" + //
+			"  <groupId>" + g + "</groupId>\n" + //
+			"  <artifactId>synth-platform</artifactId>\n" + //
+			"  <version>1.0.0</version>\n" + //
+			"  <packaging>pom</packaging>\n" + //
+			"  <properties><bom.version>1.0.0</bom.version></properties>\n" + //
+			"  <dependencyManagement><dependencies>\n" + //
+			"    <dependency><groupId>" + g + "</groupId>" + //
+			"<artifactId>synth-bom</artifactId>" + //
+			"<version>${bom.version}</version>" + //
+			"<type>pom</type><scope>import</scope></dependency>\n" + //
+			"    <dependency><groupId>" + g + "</groupId>" + //
+			"<artifactId>synth-parent-0</artifactId>" + //
+			"<version>1.0.0</version></dependency>\n" + //
+			"  </dependencies></dependencyManagement>\n" + //
+			"</project>\n";
+		Files.write(new File(dir, "synth-platform-1.0.0.pom").toPath(), xml
+			.getBytes(StandardCharsets.UTF_8));
+
+		final ComponentIndex index = new ComponentIndex(g, "synth-platform",
+			"1.0.0", ComponentIndex.Resolution.MANAGED, POMSummary::getAllPOMs, null,
+			new MavenRepositories(repo.getRoot()));
+		// NB: The platform's own entry first, then those it imports.
+		assertEquals(21, index.getPOMs().size());
+		assertEquals("synth-parent-0", index.getPOMs().get(0).getArtifactId());
+		assertEquals(SyntheticRepository.componentId(0), index.getPOMs().get(1)
+			.getArtifactId());
+	}
+
+	private POMSummary find(final ComponentIndex index, final String a) {
+		for (final POMSummary pom : index.getPOMs()) {
+			if (a.equals(pom.getArtifactId())) return pom;
+		}
+		throw new AssertionError("No such component: " + a);
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.security.auth.login.LoginException;
+
+import org.junit.Test;
+import org.scijava.maven.wiki.UploadScheduler.Status;
+
+/** Tests {@link UploadScheduler}. */
+public class UploadSchedulerTest {
+
+	@Test
+	public void testRetries() throws Exception {
+		final UploadScheduler scheduler = new UploadScheduler(2, 0, 1);
+		final AtomicInteger flaky = new AtomicInteger();
+		scheduler.submit("Ok", () -> {}, null);
+		scheduler.submit("Flaky", () -> {
+			if (flaky.getAndIncrement() == 0) {
+				throw new IOException("Connection reset");
+			}
+		}, null);
+		scheduler.submit("Denied", () -> {
+			throw new LoginException("Permission denied");
+		}, null);
+		scheduler.shutdown();
+
+		assertEquals(3, scheduler.getResults().size());
+		assertEquals(1, scheduler.count(Status.SUCCESS));
+		assertEquals(1, scheduler.count(Status.RETRIED));
+		assertEquals(1, scheduler.count(Status.FAILED));
+		for (final UploadScheduler.Result result : scheduler.getResults()) {
+			switch (result.getPageName()) {
+				case "Flaky":
+					assertEquals(2, result.getAttempts());
+					break;
+				case "Denied":
+					// NB: Login failures are not retried.
+					assertEquals(1, result.getAttempts());
+					assertTrue(result.getError() instanceof LoginException);
+					break;
+			}
+		}
+	}
+
+	@Test
+	public void testGiveUp() throws Exception {
+		final UploadScheduler scheduler = new UploadScheduler(1, 0, 1);
+		final AtomicInteger attempts = new AtomicInteger();
+		scheduler.submit("Unreachable", () -> {
+			attempts.incrementAndGet();
+			throw new IOException("Connection refused");
+		}, result -> assertEquals(Status.FAILED, result.getStatus()));
+		scheduler.shutdown();
+		assertEquals(2, attempts.get());
+		assertEquals(1, scheduler.count(Status.FAILED));
+		assertTrue(scheduler.getResults().get(0)
+			.getError() instanceof IOException);
+	}
+
+	@Test
+	public void testThrottled() throws Exception {
+		// NB: A throttled edit waits as long as asked, not INITIAL_BACKOFF.
+		final UploadScheduler scheduler = new UploadScheduler(1, 0, 1);
+		final long[] attempts = new long[2];
+		final AtomicInteger count = new AtomicInteger();
+		scheduler.submit("Throttled", () -> {
+			final int i = count.getAndIncrement();
+			attempts[i] = System.nanoTime();
+			if (i == 0) throw new ThrottledException("Too many requests", 300);
+		}, null);
+		scheduler.shutdown();
+		final long waited = (attempts[1] - attempts[0]) / 1000000;
+		assertEquals(1, scheduler.count(Status.RETRIED));
+		assertTrue("Too soon: " + waited + " ms", waited >= 300);
+		assertTrue("Too late: " + waited + " ms", //
+			waited < UploadScheduler.INITIAL_BACKOFF);
+	}
+
+	@Test
+	public void testRateLimit() throws Exception {
+		// NB: A burst of 10 edits starts at once; the other 5 take 0.5 s.
+		final UploadScheduler scheduler = new UploadScheduler(4, 10, 0);
+		final long start = System.nanoTime();
+		for (int i = 0; i < 15; i++) {
+			scheduler.submit("Page" + i, () -> {}, null);
+		}
+		scheduler.shutdown();
+		final long elapsed = (System.nanoTime() - start) / 1000000;
+		assertEquals(15, scheduler.count(Status.SUCCESS));
+		assertTrue("Too fast: " + elapsed + " ms", elapsed >= 400);
+		assertTrue(scheduler.getThroughput() > 0);
+		assertTrue(scheduler.getMaxLatency() >= scheduler.getMeanLatency());
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.login.LoginException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a dry-run {@link WikiUpdater#update update} of a project with 10,
+ * 100 or 1000 {@link BenchmarkFixtures synthetic} components: rendering all its
+ * tables, in serial or in parallel, and writing them to an output which
+ * discards them.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test -Djmh.include=WikiUpdater}.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WikiUpdaterBenchmark {
+
+	@Param({ "10", "100", "1000" })
+	public int components;
+
+	@Param({ "false", "true" })
+	public boolean parallel;
+
+	private ComponentIndex index;
+
+	@Setup
+	public void setUp() throws IOException {
+		index = BenchmarkFixtures.index(components);
+		index.generateMasterTable();
+	}
+
+	@Benchmark
+	public int dryRun() throws IOException, LoginException {
+		final Sink sink = new Sink();
+		// NB: A fresh updater, since each updates a page only once.
+		final WikiUpdater wikiUpdater = new WikiUpdater(null);
+		wikiUpdater.setParallel(parallel);
+		wikiUpdater.setOutput(sink);
+		wikiUpdater.update(index, true);
+		return sink.count;
+	}
+
+	/** An output which counts the characters written to it, and no more. */
+	private static class Sink extends Writer {
+
+		private int count;
+
+		@Override
+		public void write(final char[] cbuf, final int off, final int len) {
+			count += len;
+		}
+
+		@Override
+		public Writer append(final CharSequence csq) {
+			count += csq.length();
+			return this;
+		}
+
+		@Override
+		public void flush() {}
+
+		@Override
+		public void close() {}
+	}
+
+}
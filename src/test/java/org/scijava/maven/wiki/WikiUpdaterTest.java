@@ -0,0 +1,252 @@
+/*
+ * #%L
+ * Maven component MediaWiki page generator.
+ * %%
+ * Copyright (C) 2015 - 2016 Board of Regents of the University of
+ * Wisconsin-Madison.
+ * %%
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ * #L%
+ */
+
+package org.scijava.maven.wiki;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/** Tests {@link WikiUpdater}. */
+public class WikiUpdaterTest {
+
+	@Rule
+	public TemporaryFolder tmp = new TemporaryFolder();
+
+	private ComponentIndex index;
+
+	@Before
+	public void setUp() throws Exception {
+		index = new ComponentIndex("ch.qos.logback", "logback-classic", "1.2.3");
+	}
+
+	@Test
+	public void testParallelDryRun() throws Exception {
+		final String serial = dryRun(false);
+		final String parallel = dryRun(true);
+		assertEquals(pages(serial), pages(parallel));
+		assertEquals(5, pages(parallel).size());
+	}
+
+	@Test
+	public void testDryRunOutput() throws Exception {
+		final StringWriter out = new StringWriter();
+		final WikiUpdater wikiUpdater = new WikiUpdater(null);
+		wikiUpdater.setOutput(out);
+		wikiUpdater.update(index, true);
+		assertEquals(dryRun(false), out.toString());
+	}
+
+	@Test
+	public void testContentHash() {
+		final String text = "{{Component\n| name = Caf\u00e9\n}}";
+		final StringBuilder sb = new StringBuilder(text).append("\n\n");
+		assertEquals(WikiUpdater.contentHash(text), WikiUpdater.contentHash(sb));
+	}
+
+	@Test
+	public void testThrottling() throws Exception {
+		final WikiUpdater.Editor editor = WikiUpdater.throttling((page, text,
+			summary) -> {
+			throw new IOException("Server returned HTTP response code: " + page +
+				" for URL: https://wiki.example.org/api.php");
+		});
+		for (final String code : new String[] { "429", "503" }) {
+			try {
+				editor.edit(code, "", "");
+				fail("Edit succeeded");
+			}
+			catch (final ThrottledException exc) {
+				assertEquals(MediaWikiAPI.DEFAULT_RETRY_AFTER, exc.getRetryAfter());
+			}
+		}
+		try {
+			editor.edit("500", "", "");
+			fail("Edit succeeded");
+		}
+		catch (final IOException exc) {
+			assertFalse(exc instanceof ThrottledException);
+		}
+	}
+
+	@Test
+	public void testSkipUnchanged() throws Exception {
+		try (final MockWiki wiki = new MockWiki()) {
+			final WikiUpdater first = updater(wiki);
+			first.update(index, true);
+			assertEquals(5, first.getEditCount());
+			assertEquals(0, first.getSkipCount());
+
+			final String page = "Template:ComponentStats:org.slf4j:slf4j-api";
+			final String text = wiki.getPage(page);
+			wiki.setPage(page, "Vandalized!");
+
+			final WikiUpdater second = updater(wiki);
+			second.update(index, true);
+			assertEquals(1, second.getEditCount());
+			assertEquals(4, second.getSkipCount());
+			assertEquals(text, wiki.getPage(page));
+			assertEquals(6, wiki.getEditCount());
+		}
+	}
+
+	@Test
+	public void testBatchedReads() throws Exception {
+		try (final MockWiki wiki = new MockWiki()) {
+			updater(wiki).update(index, true);
+
+			final int requests = wiki.getRequestCount();
+			final WikiUpdater wikiUpdater = updater(wiki);
+			wikiUpdater.setBatchSize(2);
+			wikiUpdater.update(index, true);
+			assertEquals(5, wikiUpdater.getSkipCount());
+			assertEquals(3, wiki.getRequestCount() - requests);
+			assertEquals(2, wikiUpdater.getRequestsSaved());
+		}
+	}
+
+	@Test
+	public void testLedger() throws Exception {
+		final File ledgerFile = new File(tmp.getRoot(), "ledger.properties");
+		try (final MockWiki wiki = new MockWiki()) {
+			final WikiUpdater first = updater(wiki, new UploadLedger(ledgerFile));
+			first.update(index, true);
+			assertEquals(5, first.getEditCount());
+			first.getLedger().save();
+
+			// all pages are known to be unchanged, without asking the wiki
+			final int requests = wiki.getRequestCount();
+			final WikiUpdater second = updater(wiki, new UploadLedger(ledgerFile));
+			second.update(index, true);
+			assertEquals(0, second.getEditCount());
+			assertEquals(5, second.getSkipCount());
+			assertEquals(requests, wiki.getRequestCount());
+
+			// someone else edits a page, which only verification notices
+			final String page = "Template:ComponentStats:org.slf4j:slf4j-api";
+			wiki.setPage(page, "Vandalized!");
+			final WikiUpdater third = updater(wiki, new UploadLedger(ledgerFile));
+			third.setVerifyLedger(true);
+			third.update(index, true);
+			assertEquals(1, third.getEditCount());
+			assertEquals(4, third.getSkipCount());
+		}
+	}
+
+	@Test
+	public void testVerifyUnknownRevisions() throws Exception {
+		final File ledgerFile = new File(tmp.getRoot(), "ledger.properties");
+		try (final MockWiki wiki = new MockWiki()) {
+			final WikiUpdater first = updater(wiki, new UploadLedger(ledgerFile));
+			first.update(index, true);
+			first.getLedger().save();
+
+			// scheduled edits are recorded without their revisions, so verifying
+			// them needs the live content of every page, read in one batch
+			final int requests = wiki.getRequestCount();
+			final WikiUpdater second = updater(wiki, new UploadLedger(ledgerFile));
+			second.setVerifyLedger(true);
+			second.update(index, true);
+			assertEquals(0, second.getEditCount());
+			assertEquals(5, second.getSkipCount());
+			assertEquals(1, wiki.getRequestCount() - requests);
+		}
+	}
+
+	@Test
+	public void testIncremental() throws Exception {
+		final File ledgerFile = new File(tmp.getRoot(), "ledger.properties");
+		try (final MockWiki wiki = new MockWiki()) {
+			final WikiUpdater first = updater(wiki, new UploadLedger(ledgerFile));
+			first.setIncremental(true);
+			first.update(index, true);
+			assertEquals(5, first.getEditCount());
+			first.getLedger().save();
+
+			// no page is even generated, let alone read from the wiki
+			final int requests = wiki.getRequestCount();
+			final WikiUpdater second = updater(wiki, new UploadLedger(ledgerFile));
+			second.setIncremental(true);
+			second.update(index, true);
+			assertEquals(0, second.getEditCount());
+			assertEquals(0, second.getSkipCount());
+			assertEquals(5, second.getUpToDateCount());
+			assertEquals(requests, wiki.getRequestCount());
+
+			// the project name is in every component table, but not the master
+			index.setBaseName("Logback");
+			final WikiUpdater third = updater(wiki, new UploadLedger(ledgerFile));
+			third.setIncremental(true);
+			third.update(index, true);
+			assertEquals(4, third.getEditCount());
+			assertEquals(1, third.getUpToDateCount());
+		}
+	}
+
+	private WikiUpdater updater(final MockWiki wiki, final UploadLedger ledger)
+		throws Exception
+	{
+		final WikiUpdater wikiUpdater = updater(wiki);
+		wikiUpdater.setLedger(ledger);
+		return wikiUpdater;
+	}
+
+	private WikiUpdater updater(final MockWiki wiki) throws Exception {
+		return new WikiUpdater(new MediaWikiAPI(wiki.getURL()), wiki);
+	}
+
+	private String dryRun(final boolean parallel) throws Exception {
+		final WikiUpdater wikiUpdater = new WikiUpdater(null);
+		wikiUpdater.setParallel(parallel);
+		final PrintStream out = System.out;
+		final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		System.setOut(new PrintStream(buffer, true, "UTF-8"));
+		try {
+			wikiUpdater.update(index, true);
+		}
+		finally {
+			System.setOut(out);
+		}
+		return buffer.toString("UTF-8");
+	}
+
+	/** Splits dry run output into its individual pages. */
+	private Set<String> pages(final String output) {
+		return new HashSet<>(Arrays.asList(output.split("\n\n")));
+	}
+
+}